@@ -50,6 +50,17 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Engine tests run on the plain JVM; android.util.Log calls return defaults there
+        unitTests.isReturnDefaultValues = true
+        unitTests.all {
+            // Scoreboard load test (ScoreboardLoadTest): skipped unless -Pscoreboard.loadtest.rows is set
+            it.systemProperty("scoreboard.loadtest.rows", project.findProperty("scoreboard.loadtest.rows") ?: "")
+            it.systemProperty("scoreboard.loadtest.reportDir",
+                layout.buildDirectory.dir("reports/scoreboard-load").get().asFile.path)
+            it.maxHeapSize = "4g"
+        }
+    }
 }
 
 dependencies {
@@ -61,6 +72,7 @@ dependencies {
     implementation(libs.room.common.jvm)
     implementation(libs.room.runtime)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
     annotationProcessor(libs.room.compiler)
@@ -0,0 +1,46 @@
+package com.example.minesweeper;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AppExecutors
+ * ------------
+ * Shared thread pools for the whole app, so background work doesn't
+ * start a new raw Thread every time.
+ *
+ *  - {@link #io()}: small pool for disk and network work
+ *  - {@link #mainThread()}: posts results back to the UI thread
+ */
+public final class AppExecutors {
+
+    private static final int IO_THREADS = 2;
+
+    private static final ExecutorService IO = Executors.newFixedThreadPool(IO_THREADS);
+
+    private static final Executor MAIN_THREAD = new Executor() {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    };
+
+    private AppExecutors() {
+    }
+
+    /** Executor for disk and network work. */
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    /** Executor that runs tasks on the UI thread. */
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+}
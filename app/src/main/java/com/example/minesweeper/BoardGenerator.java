@@ -0,0 +1,272 @@
+package com.example.minesweeper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * BoardGenerator
+ * --------------
+ * Places bombs and computes neighbor counts for a packed board
+ * (see {@link MinesweeperGame} for the cell bit layout). Neighbors come
+ * from the board's {@link BoardTopology.Adjacency} table.
+ *
+ * The board is split into horizontal stripes of whole rows. Generation runs
+ * in two phases on a fork-join pool:
+ *  1. Bomb placement. The total bomb count is split exactly between the
+ *     stripes by recursive halving: each split draws the left half's share
+ *     from a hypergeometric distribution, so every layout stays equally
+ *     likely. Each stripe then places its share with its own seeded random
+ *     stream (selection sampling, one pass over the stripe).
+ *  2. Neighbor counting, per stripe. Phase 1 is complete by then, so a
+ *     stripe can read the bombs of its neighbor stripes' border rows safely.
+ *
+ * Every random stream is derived from the seed and the position in the
+ * split tree, and the stripe height depends only on the board width, so the
+ * result for a given seed is identical whether it runs in parallel or
+ * sequentially (the deterministic reference), on any number of cores.
+ */
+final class BoardGenerator {
+
+    /** Boards smaller than this are generated on the calling thread */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Approximate number of cells per stripe */
+    private static final int STRIPE_CELLS = 1 << 14;
+
+    private BoardGenerator() {
+    }
+
+    /**
+     * Fills {@code cells} (which must be all zero) with bombs and neighbor counts.
+     *
+     * @param safeIndex Index of a cell that, with all its neighbors, must stay
+     *                  bomb-free, or -1 for none.
+     * @param parallel Whether to use the fork-join pool (same result either way).
+     */
+    static void generate(byte[] cells, BoardTopology.Adjacency adjacency, int bombs, long seed,
+                         int safeIndex, boolean parallel) {
+        Plan plan = new Plan(cells, adjacency, safeIndex);
+        int eligible = plan.eligibleCells(0, plan.stripes);
+        if (bombs > eligible) {
+            throw new IllegalArgumentException("Too many bombs: " + bombs + " > " + eligible + " free cells");
+        }
+
+        PlaceTask place = new PlaceTask(plan, 0, plan.stripes, bombs, mix(seed, 0x5EED));
+        CountTask count = new CountTask(plan, 0, plan.stripes);
+        if (parallel) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            pool.invoke(place);
+            pool.invoke(count);
+        } else {
+            place.compute();
+            count.compute();
+        }
+    }
+
+    /** Generates on the pool only when the board is large enough to benefit. */
+    static void generate(byte[] cells, BoardTopology.Adjacency adjacency, int bombs, long seed, int safeIndex) {
+        generate(cells, adjacency, bombs, seed, safeIndex,
+                (long) adjacency.rows * adjacency.cols >= PARALLEL_THRESHOLD);
+    }
+
+    /** SplitMix64-style mixing, used to derive independent stream seeds. */
+    static long mix(long a, long b) {
+        long z = a + b * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Shared, read-only description of the stripes. */
+    private static final class Plan {
+        final byte[] cells;
+        final BoardTopology.Adjacency adjacency;
+        final int rows, cols;
+        final int stripeRows, stripes;
+        final int[] excluded; // Sorted indices of the safe cell and its neighbors
+        final int excludedMin, excludedMax;
+
+        Plan(byte[] cells, BoardTopology.Adjacency adjacency, int safeIndex) {
+            this.cells = cells;
+            this.adjacency = adjacency;
+            this.rows = adjacency.rows;
+            this.cols = adjacency.cols;
+            this.stripeRows = Math.max(1, STRIPE_CELLS / Math.max(1, cols));
+            this.stripes = (rows + stripeRows - 1) / stripeRows;
+
+            if (safeIndex < 0) {
+                excluded = new int[0];
+            } else {
+                int cls = adjacency.classOfIndex(safeIndex);
+                int start = adjacency.classStart[cls], end = adjacency.classStart[cls + 1];
+                excluded = new int[end - start + 1];
+                excluded[0] = safeIndex;
+                for (int k = start; k < end; k++) {
+                    excluded[k - start + 1] = safeIndex + adjacency.offsets[k];
+                }
+                Arrays.sort(excluded);
+            }
+            excludedMin = excluded.length > 0 ? excluded[0] : -1;
+            excludedMax = excluded.length > 0 ? excluded[excluded.length - 1] : -1;
+        }
+
+        int firstRow(int stripe) {
+            return stripe * stripeRows;
+        }
+
+        int endRow(int stripe) {
+            return Math.min(rows, (stripe + 1) * stripeRows);
+        }
+
+        boolean isExcluded(int index) {
+            if (index < excludedMin || index > excludedMax) return false;
+            for (int e : excluded) {
+                if (e == index) return true;
+            }
+            return false;
+        }
+
+        /** Number of cells that may hold a bomb in stripes [from, to). */
+        int eligibleCells(int from, int to) {
+            int startIndex = firstRow(from) * cols, endIndex = endRow(to - 1) * cols;
+            int total = endIndex - startIndex;
+            for (int e : excluded) {
+                if (e >= startIndex && e < endIndex) total--;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Phase 1: splits {@code bombs} between stripes [from, to) and places them.
+     */
+    private static final class PlaceTask extends RecursiveAction {
+        private final Plan plan;
+        private final int from, to, bombs;
+        private final long seed;
+
+        PlaceTask(Plan plan, int from, int to, int bombs, long seed) {
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+            this.bombs = bombs;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                placeInStripe(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            int leftCells = plan.eligibleCells(from, mid);
+            int totalCells = leftCells + plan.eligibleCells(mid, to);
+            int leftBombs = sampleHypergeometric(new SplittableRandom(seed), totalCells, leftCells, bombs);
+
+            PlaceTask left = new PlaceTask(plan, from, mid, leftBombs, mix(seed, 1));
+            PlaceTask right = new PlaceTask(plan, mid, to, bombs - leftBombs, mix(seed, 2));
+            if (getPool() != null) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+        }
+
+        /** Selection sampling: visits each eligible cell once, picks exactly {@code bombs}. */
+        private void placeInStripe(int stripe) {
+            SplittableRandom random = new SplittableRandom(seed);
+            byte[] cells = plan.cells;
+            int cols = plan.cols;
+            int remainingCells = plan.eligibleCells(stripe, stripe + 1);
+            int needed = bombs;
+
+            int end = plan.endRow(stripe) * cols;
+            for (int index = plan.firstRow(stripe) * cols; index < end && needed > 0; index++) {
+                if (plan.isExcluded(index)) continue;
+                if (random.nextInt(remainingCells) < needed) {
+                    cells[index] |= MinesweeperGame.BOMB;
+                    needed--;
+                }
+                remainingCells--;
+            }
+        }
+
+        /**
+         * Number of "left" items among {@code draws} taken without replacement from
+         * {@code total} items of which {@code left} are "left" items.
+         * Simulates the smaller of the draws or their complement.
+         */
+        private static int sampleHypergeometric(SplittableRandom random, int total, int left, int draws) {
+            if (draws > total / 2) {
+                return left - sampleHypergeometric(random, total, left, total - draws);
+            }
+            int leftRemaining = left, remaining = total, picked = 0;
+            for (int i = 0; i < draws; i++) {
+                if (random.nextInt(remaining) < leftRemaining) {
+                    picked++;
+                    leftRemaining--;
+                }
+                remaining--;
+            }
+            return picked;
+        }
+    }
+
+    /**
+     * Phase 2: computes neighbor counts for stripes [from, to).
+     */
+    private static final class CountTask extends RecursiveAction {
+        private final Plan plan;
+        private final int from, to;
+
+        CountTask(Plan plan, int from, int to) {
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                countStripe(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(plan, from, mid);
+            CountTask right = new CountTask(plan, mid, to);
+            if (getPool() != null) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+        }
+
+        private void countStripe(int stripe) {
+            byte[] cells = plan.cells;
+            int cols = plan.cols;
+            BoardTopology.Adjacency adjacency = plan.adjacency;
+            int[] classStart = adjacency.classStart;
+            int[] offsets = adjacency.offsets;
+
+            for (int row = plan.firstRow(stripe); row < plan.endRow(stripe); row++) {
+                int rowClass = adjacency.rowClass[row];
+                for (int col = 0; col < cols; col++) {
+                    int index = row * cols + col;
+                    if ((cells[index] & MinesweeperGame.BOMB) != 0) continue;
+
+                    int cls = rowClass + adjacency.colClass[col];
+                    int count = 0;
+                    for (int k = classStart[cls]; k < classStart[cls + 1]; k++) {
+                        if ((cells[index + offsets[k]] & MinesweeperGame.BOMB) != 0) count++;
+                    }
+                    cells[index] |= (byte) count;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.minesweeper;
+
+/**
+ * BoardSnapshot
+ * -------------
+ * Immutable, versioned view of a {@link MinesweeperGame} board, safe to
+ * read from any thread while the game keeps changing.
+ *
+ * The cells are stored in chunks of {@link #CHUNK_CELLS} bytes (same bit
+ * layout as the game board). A new snapshot copies only the chunks a move
+ * changed and shares all others with the previous snapshot, so publishing
+ * one costs about the size of the change, not of the board.
+ */
+public final class BoardSnapshot {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_CELLS - 1;
+
+    private final long version;
+    private final int rows, cols;
+    private final int revealedCells;
+    private final boolean gameOver;
+    private final byte[][] chunks; // Never modified after construction
+
+    BoardSnapshot(long version, int rows, int cols, int revealedCells, boolean gameOver, byte[][] chunks) {
+        this.version = version;
+        this.rows = rows;
+        this.cols = cols;
+        this.revealedCells = revealedCells;
+        this.gameOver = gameOver;
+        this.chunks = chunks;
+    }
+
+    /** Number of chunks needed for a board of {@code cells} cells. */
+    static int chunkCount(int cells) {
+        return (cells + CHUNK_CELLS - 1) >>> CHUNK_SHIFT;
+    }
+
+    byte[][] chunks() {
+        return chunks;
+    }
+
+    private byte cell(int row, int col) {
+        int index = row * cols + col;
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /** Increases by one with every published change of the game. */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isBomb(int row, int col) {
+        return (cell(row, col) & MinesweeperGame.BOMB) != 0;
+    }
+
+    public boolean isRevealed(int row, int col) {
+        return (cell(row, col) & MinesweeperGame.REVEALED) != 0;
+    }
+
+    public boolean isFlagged(int row, int col) {
+        return (cell(row, col) & MinesweeperGame.FLAGGED) != 0;
+    }
+
+    public int getNeighborBombs(int row, int col) {
+        return cell(row, col) & MinesweeperGame.COUNT_MASK;
+    }
+
+    public int getRevealedCells() {
+        return revealedCells;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.minesweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BoardTopology
+ * -------------
+ * Defines which cells are neighbors of each other:
+ *  - SQUARE: the classic grid, 8 neighbors, edges are walls
+ *  - TORUS:  like SQUARE, but the edges wrap around (left meets right,
+ *            top meets bottom), so every cell has 8 neighbors
+ *  - HEX:    hexagonal cells in "odd-r" layout (odd rows shifted half a
+ *            cell to the right), 6 neighbors
+ *
+ * For a given board shape the topology builds an {@link Adjacency} table
+ * once. Instead of storing a neighbor list per cell, cells are grouped into
+ * a few classes (by whether they are on the first/last row or column, and
+ * by row parity for HEX); every cell of a class has the same neighbor
+ * offsets. The tables are cached and shared by all games of that shape.
+ */
+public enum BoardTopology {
+    SQUARE, TORUS, HEX;
+
+    /** Number of distinct board shapes whose tables are kept */
+    private static final int CACHE_SIZE = 16;
+
+    private static final Map<Long, Adjacency> CACHE = new LinkedHashMap<Long, Adjacency>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Adjacency> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Returns the (shared) adjacency table of this topology for a board shape.
+     */
+    public Adjacency adjacency(int rows, int cols) {
+        long key = ((long) ordinal() << 56) | ((long) rows << 28) | cols;
+        synchronized (CACHE) {
+            Adjacency adjacency = CACHE.get(key);
+            if (adjacency == null) {
+                adjacency = new Adjacency(this, rows, cols);
+                CACHE.put(key, adjacency);
+            }
+            return adjacency;
+        }
+    }
+
+    /**
+     * Neighbor coordinates of (row, col), with bounds handling; used only
+     * while building the table. Returns the number of neighbors written
+     * into {@code out} as (row, col) pairs.
+     */
+    int neighbors(int rows, int cols, int row, int col, int[] out) {
+        int count = 0;
+        if (this == HEX) {
+            // Odd rows are shifted right, so their diagonal neighbors are at col and col + 1
+            int shift = (row & 1) == 0 ? -1 : 0;
+            int[][] deltas = {
+                    {0, -1}, {0, 1},
+                    {-1, shift}, {-1, shift + 1},
+                    {1, shift}, {1, shift + 1}
+            };
+            for (int[] d : deltas) {
+                int r = row + d[0], c = col + d[1];
+                if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                    out[count++] = r;
+                    out[count++] = c;
+                }
+            }
+            return count / 2;
+        }
+
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (dr == 0 && dc == 0) continue;
+                int r = row + dr, c = col + dc;
+                if (this == TORUS) {
+                    r = (r + rows) % rows;
+                    c = (c + cols) % cols;
+                    if (r == row && c == col) continue; // 1-wide board wraps onto itself
+                    if (contains(out, count, r, c)) continue; // 2-wide board: same neighbor twice
+                } else if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                    continue;
+                }
+                out[count++] = r;
+                out[count++] = c;
+            }
+        }
+        return count / 2;
+    }
+
+    private static boolean contains(int[] pairs, int length, int r, int c) {
+        for (int i = 0; i < length; i += 2) {
+            if (pairs[i] == r && pairs[i + 1] == c) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compact neighbor table for one board shape.
+     *
+     * Usage (no bounds checks needed):
+     * <pre>
+     *   int cls = adjacency.classOf(row, col);
+     *   for (int k = adjacency.classStart[cls]; k < adjacency.classStart[cls + 1]; k++) {
+     *       int neighbor = index + adjacency.offsets[k];
+     *   }
+     * </pre>
+     */
+    public static final class Adjacency {
+
+        // Row key: bit 0 = first row, bit 1 = last row, bit 2 = odd row (HEX only)
+        // Column key: bit 0 = first column, bit 1 = last column
+        private static final int CLASSES = 8 * 4;
+
+        final int rows, cols;
+        final BoardTopology topology;
+        final byte[] rowClass;  // Row key * 4, per row
+        final byte[] colClass;  // Column key, per column
+        final int[] classStart; // Offsets of each class in {@link #offsets}, plus an end marker
+        final int[] offsets;    // Index deltas of the neighbors, grouped by class
+
+        Adjacency(BoardTopology topology, int rows, int cols) {
+            this.topology = topology;
+            this.rows = rows;
+            this.cols = cols;
+            this.rowClass = new byte[rows];
+            this.colClass = new byte[cols];
+
+            // Representative cell of each class
+            int[] sampleRow = new int[CLASSES];
+            int[] sampleCol = new int[CLASSES];
+            boolean[] present = new boolean[CLASSES];
+
+            for (int r = 0; r < rows; r++) {
+                int key = (r == 0 ? 1 : 0) | (r == rows - 1 ? 2 : 0)
+                        | (topology == HEX && (r & 1) == 1 ? 4 : 0);
+                rowClass[r] = (byte) (key * 4);
+            }
+            for (int c = 0; c < cols; c++) {
+                colClass[c] = (byte) ((c == 0 ? 1 : 0) | (c == cols - 1 ? 2 : 0));
+            }
+            for (int r = 0; r < rows; r++) {
+                // Only the first two and last row can start a new class
+                if (r > 2 && r < rows - 1) continue;
+                for (int c = 0; c < cols; c++) {
+                    if (c > 1 && c < cols - 1) continue;
+                    int cls = rowClass[r] + colClass[c];
+                    if (!present[cls]) {
+                        present[cls] = true;
+                        sampleRow[cls] = r;
+                        sampleCol[cls] = c;
+                    }
+                }
+            }
+
+            // Offsets of each class, taken from its representative cell
+            int[] pairs = new int[16];
+            int[] buffer = new int[CLASSES * 8];
+            classStart = new int[CLASSES + 1];
+            int size = 0;
+            for (int cls = 0; cls < CLASSES; cls++) {
+                classStart[cls] = size;
+                if (!present[cls]) continue;
+                int row = sampleRow[cls], col = sampleCol[cls];
+                int n = topology.neighbors(rows, cols, row, col, pairs);
+                for (int i = 0; i < n; i++) {
+                    buffer[size++] = (pairs[2 * i] * cols + pairs[2 * i + 1]) - (row * cols + col);
+                }
+            }
+            classStart[CLASSES] = size;
+            offsets = new int[size];
+            System.arraycopy(buffer, 0, offsets, 0, size);
+        }
+
+        /** Neighbor class of the cell at (row, col). */
+        public int classOf(int row, int col) {
+            return rowClass[row] + colClass[col];
+        }
+
+        /** Neighbor class of the cell at a row-major index. */
+        public int classOfIndex(int index) {
+            return rowClass[index / cols] + colClass[index % cols];
+        }
+
+        public BoardTopology getTopology() {
+            return topology;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.minesweeper;
+
+import android.util.Log;
+
+import com.google.genai.Client;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.HttpOptions;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CongratsMessageProvider
+ * -----------------------
+ * Supplies the title of the win dialog.
+ *
+ * Messages are generated ahead of time in the background and kept in a
+ * small pool, so {@link #next()} never waits on the network: it returns a
+ * pooled message, or a local fallback message if the pool is empty
+ * (offline, slow network, or the very first win).
+ *
+ * The refill runs on the provider's own thread, not on the shared
+ * {@link AppExecutors#io()} pool, because it waits for each call. Each
+ * generation call has a hard deadline ({@link #DEADLINE_MS}); a call that
+ * misses it is abandoned and the refill stops until the next request. The
+ * SDK may not react to the interrupt, so the abandoned call keeps its
+ * thread and the next call gets a new one; the Gemini client's HTTP timeout
+ * is the same deadline, so that thread ends soon after.
+ *
+ * The generator is pluggable through {@link #setSource(MessageSource)} so a
+ * local stand-in can replace Gemini in tests. The default source builds the
+ * Gemini client lazily, on a background thread, the first time it is used.
+ */
+public class CongratsMessageProvider {
+
+    private static final String TAG = "CongratsMessageProvider";
+
+    /** Number of messages kept ready */
+    static final int POOL_SIZE = 3;
+
+    /** Hard limit for a single generation call */
+    static final long DEADLINE_MS = 5000;
+
+    /** Used when no generated message is available */
+    static final String[] FALLBACK_MESSAGES = {
+            "Every square swept, every mine dodged 🎉 You Won!",
+            "Cool head, sharp eyes, clean board 🎉 You Won!",
+            "Not a single bomb could stop you 🎉 You Won!",
+            "The minefield never stood a chance 🎉 You Won!",
+            "Flawless sweeping, commander 🎉 You Won!"
+    };
+
+    /**
+     * Something that can produce one congratulation message.
+     * Called on a background thread; may block.
+     */
+    public interface MessageSource {
+        String generate() throws Exception;
+    }
+
+    /** The single static instance of the provider (singleton). */
+    private static CongratsMessageProvider instance;
+
+    private final ConcurrentLinkedQueue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor();
+    private volatile ExecutorService generator = Executors.newSingleThreadExecutor(); // Replaced after a missed deadline
+    private final Random random = new Random();
+    private final long deadlineMs;
+    private volatile MessageSource source;
+
+    /** A provider with its own deadline per call; {@link #getInstance()} uses {@link #DEADLINE_MS}. */
+    CongratsMessageProvider(MessageSource source, long deadlineMs) {
+        this.source = source;
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Returns the singleton provider, backed by Gemini.
+     */
+    public static synchronized CongratsMessageProvider getInstance() {
+        if (instance == null) {
+            instance = new CongratsMessageProvider(new GeminiMessageSource(BuildConfig.GOOGLE_API_KEY), DEADLINE_MS);
+            Log.d(TAG, "CongratsMessageProvider created.");
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the message generator (e.g. with a local stand-in for tests)
+     * and drops any messages generated by the previous one.
+     */
+    public void setSource(MessageSource source) {
+        this.source = source;
+        pool.clear();
+    }
+
+    /**
+     * Starts filling the pool in the background if it isn't full.
+     * Cheap to call repeatedly.
+     */
+    public void prefetch() {
+        if (pool.size() >= POOL_SIZE || !refilling.compareAndSet(false, true)) return;
+
+        refiller.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (pool.size() < POOL_SIZE) {
+                        String message = generateWithDeadline();
+                        if (message == null) break; // Offline or too slow — try again next time
+                        pool.offer(message);
+                        Log.d(TAG, "Prefetched message (" + pool.size() + " in pool): " + message);
+                    }
+                } finally {
+                    refilling.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a congratulation message immediately and tops the pool up again.
+     */
+    public String next() {
+        String message = pool.poll();
+        if (message == null) {
+            message = FALLBACK_MESSAGES[random.nextInt(FALLBACK_MESSAGES.length)];
+            Log.d(TAG, "Pool empty, using fallback message.");
+        }
+        prefetch();
+        return message;
+    }
+
+    /** Runs one generation call, giving up after the deadline. Called on the refiller thread. */
+    private String generateWithDeadline() {
+        final MessageSource current = source;
+        Future<String> future = generator.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return current.generate();
+            }
+        });
+        try {
+            String text = future.get(deadlineMs, TimeUnit.MILLISECONDS);
+            if (text == null || text.trim().isEmpty()) return null;
+            return text.trim();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            // The call may ignore the interrupt: leave it its thread and start a new one
+            future.cancel(true);
+            generator.shutdownNow();
+            generator = Executors.newSingleThreadExecutor();
+            Log.d(TAG, "Message generation missed the " + deadlineMs + " ms deadline.");
+            return null;
+        } catch (ExecutionException e) {
+            Log.d(TAG, "Message generation failed: " + e.getCause());
+            return null;
+        }
+    }
+
+    /** Waits until no refill is scheduled or running. For tests. */
+    void awaitRefill() throws InterruptedException, ExecutionException {
+        do {
+            refiller.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // The refiller is single-threaded: an earlier refill is done once this runs
+                }
+            }).get();
+        } while (refilling.get());
+    }
+
+    /** Stops the background threads. For tests; the shared instance lives as long as the app. */
+    void shutdown() {
+        refiller.shutdownNow();
+        generator.shutdownNow();
+    }
+
+    /**
+     * Default source: asks Gemini for a short congratulation sentence.
+     */
+    static class GeminiMessageSource implements MessageSource {
+
+        private static final String MODEL = "gemini-2.5-flash";
+        private static final String FIXED_PROMPT = "give me a very short congrats sentence for wining in a game " +
+                "of minesweeper use different results each time. " +
+                "show only one without any syntax" +
+                "the end of the sentence should end with (congrats emoji) You Won!" +
+                "make sure the sentence makes sense";
+
+        private final String apiKey;
+        private volatile Client client; // Built on first use, on a generator thread
+
+        GeminiMessageSource(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        @Override
+        public String generate() {
+            if (client == null) {
+                client = Client.builder()
+                        .apiKey(apiKey)
+                        .httpOptions(HttpOptions.builder().timeout((int) DEADLINE_MS).build())
+                        .build();
+                Log.d(TAG, "Gemini client created.");
+            }
+            GenerateContentResponse response = client.models.generateContent(MODEL, FIXED_PROMPT, null);
+            return response.text();
+        }
+    }
+}
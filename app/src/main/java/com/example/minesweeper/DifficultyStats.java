@@ -0,0 +1,98 @@
+package com.example.minesweeper;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * DifficultyStats
+ * ---------------
+ * Running aggregate of every game result for one difficulty level,
+ * stored in the "difficulty_stats" table.
+ *
+ * The row is updated in the same transaction as each inserted {@link Score}
+ * (see {@link ScoreDao#recordResult(Score)}), so statistics such as the
+ * average time or win rate are read from a single row instead of scanning
+ * the whole "scores" table.
+ *
+ * Time aggregates only cover won games; loss times are not meaningful.
+ */
+@Entity(tableName = "difficulty_stats")
+public class DifficultyStats {
+
+    @PrimaryKey
+    @NonNull
+    private String difficulty;
+    private int gamesPlayed;
+    private int wins;
+    private long totalTime;         // Sum of winning times (milliseconds)
+    private long totalTimeSquared;  // Sum of squared winning times, for the deviation
+    private long bestTime;          // Fastest win (milliseconds), 0 if no wins yet
+    private int currentStreak;      // Consecutive wins up to the latest game
+    private int bestStreak;         // Longest run of consecutive wins
+
+    // Constructor — used by Room when reading a row
+    public DifficultyStats(@NonNull String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Folds a single game result into the aggregate.
+     *
+     * @param won  Whether the game was won.
+     * @param timeMillis Game duration in milliseconds.
+     */
+    public void record(boolean won, long timeMillis) {
+        gamesPlayed++;
+        if (won) {
+            wins++;
+            totalTime += timeMillis;
+            totalTimeSquared += timeMillis * timeMillis;
+            if (bestTime == 0 || timeMillis < bestTime) bestTime = timeMillis;
+            currentStreak++;
+            if (currentStreak > bestStreak) bestStreak = currentStreak;
+        } else {
+            currentStreak = 0;
+        }
+    }
+
+    /** Average winning time in milliseconds, or 0 if there are no wins. */
+    public double getAverageTime() {
+        if (wins == 0) return 0;
+        return (double) totalTime / wins;
+    }
+
+    /** Standard deviation of winning times in milliseconds, or 0 if there are no wins. */
+    public double getTimeStdDev() {
+        if (wins == 0) return 0;
+        double mean = getAverageTime();
+        double variance = (double) totalTimeSquared / wins - mean * mean;
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    /** Fraction of games won, between 0 and 1. */
+    public double getWinRate() {
+        if (gamesPlayed == 0) return 0;
+        return (double) wins / gamesPlayed;
+    }
+
+    // --- Getters and Setters ---
+    @NonNull
+    public String getDifficulty() {return difficulty;}
+    public int getGamesPlayed() {return gamesPlayed;}
+    public int getWins() {return wins;}
+    public long getTotalTime() {return totalTime;}
+    public long getTotalTimeSquared() {return totalTimeSquared;}
+    public long getBestTime() {return bestTime;}
+    public int getCurrentStreak() {return currentStreak;}
+    public int getBestStreak() {return bestStreak;}
+
+    public void setDifficulty(@NonNull String difficulty) {this.difficulty = difficulty;}
+    public void setGamesPlayed(int gamesPlayed) {this.gamesPlayed = gamesPlayed;}
+    public void setWins(int wins) {this.wins = wins;}
+    public void setTotalTime(long totalTime) {this.totalTime = totalTime;}
+    public void setTotalTimeSquared(long totalTimeSquared) {this.totalTimeSquared = totalTimeSquared;}
+    public void setBestTime(long bestTime) {this.bestTime = bestTime;}
+    public void setCurrentStreak(int currentStreak) {this.currentStreak = currentStreak;}
+    public void setBestStreak(int bestStreak) {this.bestStreak = bestStreak;}
+}
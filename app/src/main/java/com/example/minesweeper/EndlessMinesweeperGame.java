@@ -0,0 +1,329 @@
+package com.example.minesweeper;
+
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * EndlessMinesweeperGame
+ * ----------------------
+ * Game logic for the "endless" mode, where the board has no fixed size.
+ *
+ * The world is split into {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} chunks.
+ * The mines of a chunk are derived from the game seed and the chunk
+ * coordinate, so any chunk can be regenerated at any time and never has
+ * to be stored just because it exists:
+ *  - A chunk is materialized (kept in a sparse map) only when a reveal,
+ *    flood or flag first touches one of its cells.
+ *  - Chunks only needed for their mines (e.g. to count neighbors across a
+ *    chunk border) live in a small LRU cache and are simply regenerated
+ *    when evicted.
+ *
+ * Memory therefore grows with the explored area, not with the world.
+ *
+ * Reveal, flood-fill and flag rules match {@link MinesweeperGame}:
+ *  - The first reveal is always safe: no mine is ever placed in the 3x3
+ *    area around it.
+ *  - Revealing a cell with no neighboring mines reveals its neighbors,
+ *    iteratively (no recursion), capped at {@link #MAX_FLOOD_CELLS} per move.
+ */
+public class EndlessMinesweeperGame {
+
+    private static final String TAG = "EndlessMinesweeperGame";
+
+    /** Chunk edge length (cells); a power of two */
+    static final int CHUNK_SHIFT = 4;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+    /** Upper bound of cells one flood may reveal (keeps very sparse worlds finite) */
+    static final int MAX_FLOOD_CELLS = 1 << 20;
+
+    /** Number of mine-only chunks kept for neighbor lookups */
+    private static final int MINE_CACHE_SIZE = 64;
+
+    // Per-cell state bits inside a chunk
+    private static final byte REVEALED = 0x10;
+    private static final byte FLAGGED = 0x20;
+    private static final byte COUNT_MASK = 0x0F;
+
+    private final long seed;
+    private final double density;
+
+    /** Chunks with at least one revealed or flagged cell, keyed by packed chunk coordinate */
+    private final HashMap<Long, Chunk> chunks = new HashMap<>();
+
+    /** Recently used mine layouts of chunks that are not materialized */
+    private final LinkedHashMap<Long, long[]> mineCache =
+            new LinkedHashMap<Long, long[]>(MINE_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                    return size() > MINE_CACHE_SIZE;
+                }
+            };
+
+    private boolean firstMove = true;
+    private int safeX, safeY; // Center of the mine-free 3x3 area of the first click
+    private boolean gameOver = false;
+    private long revealedCells = 0;
+
+    // Reusable flood queue of packed coordinates
+    private long[] floodQueue = new long[256];
+
+    /** A materialized chunk: its mine layout plus the player-visible state. */
+    private static final class Chunk {
+        final long[] mines;                      // One bit per cell
+        final byte[] state = new byte[CHUNK_CELLS]; // REVEALED / FLAGGED + neighbor count
+        int touchedCells;                        // Cells that are revealed or flagged
+
+        Chunk(long[] mines) {
+            this.mines = mines;
+        }
+    }
+
+    /**
+     * @param seed    World seed; the same seed always produces the same world.
+     * @param density Probability of a cell being a mine (e.g. 0.16 ≈ Medium).
+     */
+    public EndlessMinesweeperGame(long seed, double density) {
+        this.seed = seed;
+        this.density = density;
+        Log.d(TAG, "Endless world created (seed " + seed + ", density " + density + ")");
+    }
+
+    // ------------------ MINE LAYOUT ------------------
+
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    private static int cellIndex(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    /** Generates the mine bits of a chunk from the seed and the chunk coordinate. */
+    private long[] generateMines(int chunkX, int chunkY) {
+        long chunkSeed = seed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL);
+        SplittableRandom random = new SplittableRandom(chunkSeed);
+        long[] mines = new long[CHUNK_CELLS / 64];
+        for (int i = 0; i < CHUNK_CELLS; i++) {
+            if (random.nextDouble() < density) {
+                mines[i >> 6] |= 1L << i;
+            }
+        }
+        return mines;
+    }
+
+    /** Mine bits of a chunk, from the materialized chunk or the (regenerating) cache. */
+    private long[] minesOf(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        Chunk chunk = chunks.get(key);
+        if (chunk != null) return chunk.mines;
+
+        long[] mines = mineCache.get(key);
+        if (mines == null) {
+            mines = generateMines(chunkX, chunkY);
+            mineCache.put(key, mines);
+        }
+        return mines;
+    }
+
+    /** Returns the chunk containing (x, y), materializing it on first touch. */
+    private Chunk chunkFor(int x, int y) {
+        int chunkX = x >> CHUNK_SHIFT;
+        int chunkY = y >> CHUNK_SHIFT;
+        long key = chunkKey(chunkX, chunkY);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            long[] mines = mineCache.remove(key);
+            if (mines == null) mines = generateMines(chunkX, chunkY);
+            chunk = new Chunk(mines);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /** Whether (x, y) holds a mine. The 3x3 area of the first click never does. */
+    public boolean isBomb(int x, int y) {
+        if (!firstMove && Math.abs(x - safeX) <= 1 && Math.abs(y - safeY) <= 1) return false;
+        int index = cellIndex(x, y);
+        long[] mines = minesOf(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return (mines[index >> 6] & (1L << index)) != 0;
+    }
+
+    private int countNeighborBombs(int x, int y) {
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dy != 0) && isBomb(x + dx, y + dy)) count++;
+            }
+        }
+        return count;
+    }
+
+    // ------------------ PLAYER STATE ------------------
+
+    private byte stateOf(int x, int y) {
+        Chunk chunk = chunks.get(chunkKey(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT));
+        return chunk == null ? 0 : chunk.state[cellIndex(x, y)];
+    }
+
+    public boolean isRevealed(int x, int y) {
+        return (stateOf(x, y) & REVEALED) != 0;
+    }
+
+    public boolean isFlagged(int x, int y) {
+        return (stateOf(x, y) & FLAGGED) != 0;
+    }
+
+    /** Number of neighboring mines of a revealed cell (0 for hidden cells). */
+    public int getNeighborBombs(int x, int y) {
+        return stateOf(x, y) & COUNT_MASK;
+    }
+
+    /**
+     * Reveals a cell, flood-filling from it if it has no neighboring mines.
+     * @return true if the cell is safe; false if a bomb was hit.
+     */
+    public boolean revealCell(int x, int y) {
+        Log.d(TAG, "Revealing cell (" + x + ", " + y + ")");
+        if (gameOver) return true;
+
+        // A tap on a revealed or flagged cell does nothing (and keeps the safe first click)
+        byte state = stateOf(x, y);
+        if ((state & (REVEALED | FLAGGED)) != 0) return true;
+
+        if (firstMove) {
+            firstMove = false;
+            safeX = x;
+            safeY = y;
+        }
+
+        if (isBomb(x, y)) {
+            markRevealed(x, y, 0);
+            gameOver = true;
+            Log.d(TAG, "💣 Bomb hit! Game Over.");
+            return false;
+        }
+
+        int count = countNeighborBombs(x, y);
+        markRevealed(x, y, count);
+        if (count == 0) {
+            floodReveal(x, y);
+        }
+        return true;
+    }
+
+    private void markRevealed(int x, int y, int neighborBombs) {
+        Chunk chunk = chunkFor(x, y);
+        int index = cellIndex(x, y);
+        chunk.state[index] = (byte) (REVEALED | neighborBombs);
+        chunk.touchedCells++;
+        revealedCells++;
+    }
+
+    /** Breadth-first flood over connected zero cells, using a reusable queue. */
+    private void floodReveal(int startX, int startY) {
+        int head = 0, tail = 0;
+        floodQueue[tail++] = pack(startX, startY);
+        int revealedByFlood = 0;
+
+        while (head < tail && revealedByFlood < MAX_FLOOD_CELLS) {
+            long packed = floodQueue[head++];
+            int x = (int) (packed >> 32);
+            int y = (int) packed;
+
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) continue;
+                    int nx = x + dx, ny = y + dy;
+                    // Neighbors of a zero cell are never mines
+                    if ((stateOf(nx, ny) & (REVEALED | FLAGGED)) != 0) continue;
+
+                    int count = countNeighborBombs(nx, ny);
+                    markRevealed(nx, ny, count);
+                    revealedByFlood++;
+                    if (count == 0) {
+                        if (tail == floodQueue.length) {
+                            // Compact consumed entries before growing
+                            System.arraycopy(floodQueue, head, floodQueue, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            if (tail == floodQueue.length) {
+                                long[] bigger = new long[floodQueue.length * 2];
+                                System.arraycopy(floodQueue, 0, bigger, 0, tail);
+                                floodQueue = bigger;
+                            }
+                        }
+                        floodQueue[tail++] = pack(nx, ny);
+                    }
+                }
+            }
+        }
+        if (head < tail) {
+            Log.w(TAG, "Flood stopped at " + MAX_FLOOD_CELLS + " cells.");
+        }
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Toggles a flag on a hidden cell. Does nothing once the game is over.
+     * @return true if the cell is flagged afterwards.
+     */
+    public boolean toggleFlag(int x, int y) {
+        byte state = stateOf(x, y);
+        if (gameOver) return (state & FLAGGED) != 0;
+        if ((state & REVEALED) != 0) return false;
+
+        Chunk chunk = chunkFor(x, y);
+        int index = cellIndex(x, y);
+        if ((state & FLAGGED) != 0) {
+            chunk.state[index] = 0;
+            chunk.touchedCells--;
+            if (chunk.touchedCells == 0) {
+                // Nothing left to remember — the layout can be regenerated later
+                chunks.remove(chunkKey(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT));
+            }
+            return false;
+        }
+        chunk.state[index] = FLAGGED;
+        chunk.touchedCells++;
+        return true;
+    }
+
+    /**
+     * Drops materialized chunks that no longer hold any player state and
+     * clears the mine cache. Safe to call at any time (e.g. on low memory).
+     */
+    public void trimMemory() {
+        Iterator<Chunk> it = chunks.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().touchedCells == 0) it.remove();
+        }
+        mineCache.clear();
+        Log.d(TAG, "Trimmed memory, " + chunks.size() + " chunks kept.");
+    }
+
+    /** Returns whether the game is over (a bomb was revealed). */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /** Total number of revealed cells (the endless-mode score). */
+    public long getRevealedCells() {
+        return revealedCells;
+    }
+
+    /** Number of chunks currently kept in memory. */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+}
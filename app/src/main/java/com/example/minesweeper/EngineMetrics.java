@@ -0,0 +1,85 @@
+package com.example.minesweeper;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EngineMetrics
+ * -------------
+ * Process-wide latency histograms and counters of the game engine, the
+ * grid rendering and the score database. Recording is allocation-free
+ * (see {@link LogHistogram}), so it stays enabled in release builds.
+ *
+ * Read through {@link #summary()} (shown in the debug stats dialog of
+ * {@link GameActivity}) or {@link #toJson()}.
+ */
+public final class EngineMetrics {
+
+    /** Whole revealCell / chordCell call, including any flood fill */
+    public static final LogHistogram REVEAL = new LogHistogram("reveal", "ns");
+
+    /** Flood fills only */
+    public static final LogHistogram FLOOD = new LogHistogram("flood", "ns");
+
+    /** GameActivity.updateGrid */
+    public static final LogHistogram UPDATE_GRID = new LogHistogram("updateGrid", "ns");
+
+    /** One committed batch of the score write queue */
+    public static final LogHistogram DB_WRITE = new LogHistogram("dbWrite", "ns");
+
+    /** Cells revealed by one move */
+    public static final LogHistogram CELLS_PER_MOVE = new LogHistogram("cellsPerMove", "cells");
+
+    public static final AtomicLong MOVES = new AtomicLong();
+    public static final AtomicLong CELLS_REVEALED = new AtomicLong();
+    public static final AtomicLong BOARD_REGENERATIONS = new AtomicLong();
+
+    private static final LogHistogram[] HISTOGRAMS = {REVEAL, FLOOD, UPDATE_GRID, DB_WRITE, CELLS_PER_MOVE};
+
+    private EngineMetrics() {
+    }
+
+    /** Records one reveal move that started at {@code startNanos} and revealed {@code cells} cells. */
+    static void recordMove(long startNanos, int cells) {
+        REVEAL.recordSince(startNanos);
+        CELLS_PER_MOVE.record(cells);
+        MOVES.incrementAndGet();
+        CELLS_REVEALED.addAndGet(cells);
+    }
+
+    /** Human-readable summary, one line per metric. */
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (LogHistogram histogram : HISTOGRAMS) {
+            sb.append(histogram).append('\n');
+        }
+        sb.append("moves: ").append(MOVES.get()).append('\n');
+        sb.append("cells revealed: ").append(CELLS_REVEALED.get()).append('\n');
+        sb.append("board regenerations: ").append(BOARD_REGENERATIONS.get());
+        return sb.toString();
+    }
+
+    /** All metrics as one JSON object. */
+    public static JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        for (LogHistogram histogram : HISTOGRAMS) {
+            json.put(histogram.getName(), histogram.toJson());
+        }
+        json.put("moves", MOVES.get());
+        json.put("cellsRevealed", CELLS_REVEALED.get());
+        json.put("boardRegenerations", BOARD_REGENERATIONS.get());
+        return json;
+    }
+
+    /** Clears every metric. */
+    public static void reset() {
+        for (LogHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        MOVES.set(0);
+        CELLS_REVEALED.set(0);
+        BOARD_REGENERATIONS.set(0);
+    }
+}
@@ -2,6 +2,9 @@ package com.example.minesweeper;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AlertDialog;
+import androidx.lifecycle.ViewModelProvider;
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Build;
@@ -11,17 +14,15 @@ import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.content.Context;
 import android.util.Log;
+import android.view.HapticFeedbackConstants;
 import android.view.View;
 import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.GridLayout;
 import android.widget.TextView;
 import android.widget.ImageView;
-import android.widget.Toast;
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentResponse;
-import java.text.DateFormat;
-import java.util.Date;
+
+import org.json.JSONException;
 
 /**
  * GameActivity manages the main Minesweeper gameplay screen.
@@ -30,20 +31,14 @@ import java.util.Date;
  * - Grid creation
  * - Click & flag logic
  * - Win/Loss detection
- * - Database saving of scores
+ * - Database saving of game results
  */
 public class GameActivity extends AppCompatActivity {
     private static final String TAG = "GameActivity";
 
-    //Gemini API stuff
-    private String GeminiMassage;
-    private Client client;
-    private static final String MODEL = "gemini-2.5-flash";
-    private static final String FIXED_PROMPT = "give me a very short congrats sentence for wining in a game " +
-            "of minesweeper use different results each time. " +
-            "show only one without any syntax" +
-            "the end of the sentence should end with (congrats emoji) You Won!" +
-            "make sure the sentence makes sense";
+    // Win dialog title, taken from the prefetched message pool when the game is won
+    private String winMessage;
+    private CongratsMessageProvider messageProvider;
 
     // UI Components
     private GridLayout gameGrid;
@@ -54,20 +49,21 @@ public class GameActivity extends AppCompatActivity {
 
     // Game variables
     private int rows, cols, bombs;
+    private String difficulty;
+    private BoardTopology topology;
     private int flagsLeft;
     private boolean isPaused = false;
     private boolean gameOver = false;
     private boolean boardRevealed = false;
     private MinesweeperGame game;
 
-    // Timer management
-    private Handler timerHandler = new Handler();
-    private Runnable timerRunnable;
-    private int elapsedTime = 0;
+    // Timer management (millisecond resolution, monotonic clock)
+    private GameTimer gameTimer;
 
-    // Animation management
+    // Animation management (the handler only delays the end-game dialog)
     private Handler animationHandler = new Handler();
-    private boolean isAnimating = false;
+    private SpriteAnimator winAnimator;
+    private SpriteAnimator lossAnimator;
 
     // Animation frames - You need to add these image files to your res/drawable folder
     // For loss animation: loss_frame1.png, loss_frame2.png, ..., loss_frame9.png
@@ -95,24 +91,47 @@ public class GameActivity extends AppCompatActivity {
     // Cell buttons for grid
     private Button[][] cellButtons;
 
-    // Room database access
-    private ScoreDao scoreDao;
+    // Touch handling: tap reveals (or flags in flag mode), long press does the
+    // other action, double tap on a number chords
+    private GridGestureDispatcher gestureDispatcher;
+    private Button btnFlagMode;
+    private boolean flagMode = false;
+    private static final String PREFS = "settings";
+    private static final String PREF_LONG_PRESS_MS = "long_press_ms";
+    private static final int DEFAULT_LONG_PRESS_MS = 300;
+
+    // Paints the cells changed by a move, over several frames for big floods
+    private ProgressiveGridRenderer gridRenderer;
+
+    // Game results are written in batches through the write-behind queue
+    private ScoreWriteQueue scoreWriteQueue;
+
+    // Where players click first, die and flag, per difficulty
+    private TapHeatmapRecorder heatmapRecorder;
+
+    // Engine, timer and screen state that survive configuration changes
+    private GameViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        final StartupTrace trace = StartupTrace.begin(TAG);
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_game);
+        trace.step("setContentView");
         Log.d(TAG, "onCreate: GameActivity started");
 
-        //API Gemini stuff
-        String apiKey = BuildConfig.GOOGLE_API_KEY;
-        client = Client.builder().apiKey(apiKey).build();
-        generateMessage();
+        // Messages are prefetched after the first frame (see MinesweeperApp.warmUp)
+        messageProvider = CongratsMessageProvider.getInstance();
 
         // Get difficulty data from intent
         rows = getIntent().getIntExtra("rows", 8);
         cols = getIntent().getIntExtra("cols", 8);
         bombs = getIntent().getIntExtra("bombs", 10);
+        difficulty = getIntent().getStringExtra("difficulty");
+        if (difficulty == null) {
+            difficulty = "Easy";
+        }
+        topology = parseTopology(getIntent().getStringExtra("topology"));
         flagsLeft = bombs;
 
         // Bind UI elements
@@ -120,6 +139,7 @@ public class GameActivity extends AppCompatActivity {
         tvFlags = findViewById(R.id.tvFlags);
         tvTimer = findViewById(R.id.tvTimer);
         btnPause = findViewById(R.id.btnPause);
+        btnFlagMode = findViewById(R.id.btnFlagMode);
 
         // Bind animation views
         winAnimationView = findViewById(R.id.winAnimationView);
@@ -129,15 +149,46 @@ public class GameActivity extends AppCompatActivity {
         winAnimationView.setVisibility(View.GONE);
         lossAnimationView.setVisibility(View.GONE);
 
+        // Animation frames are decoded in the background after the first frame
+        winAnimator = new SpriteAnimator(winAnimationView, winFrames, 80, true, 0);
+        lossAnimator = new SpriteAnimator(lossAnimationView, lossFrames, 120, false, 500);
+
         // Initialize grid and labels
         gameGrid.setColumnCount(cols);
         gameGrid.setRowCount(rows);
         tvFlags.setText("Flags: " + flagsLeft);
         tvTimer.setText("Time: 0");
 
-        // Create game logic and database
-        game = new MinesweeperGame(rows, cols, bombs);
-        scoreDao = ScoreDatabase.getInstance(this).scoreDao();
+        // Create game logic, or take over the running game after a configuration
+        // change. The write queue and heatmap recorder don't touch the database
+        // until they first write, which is after the first frame
+        viewModel = new ViewModelProvider(this).get(GameViewModel.class);
+        final boolean restored = viewModel.hasGame();
+        if (restored) {
+            Log.d(TAG, "Reusing the game after a configuration change.");
+            flagsLeft = viewModel.flagsLeft;
+            isPaused = viewModel.isPaused;
+            gameOver = viewModel.gameOver;
+            boardRevealed = viewModel.boardRevealed;
+            flagMode = viewModel.flagMode;
+            winMessage = viewModel.winMessage;
+            tvFlags.setText("Flags: " + flagsLeft);
+            btnFlagMode.setText(flagMode ? "🚩" : "⛏");
+            if (boardRevealed) btnPause.setText("Continue");
+        } else {
+            viewModel.game = new MinesweeperGame(rows, cols, bombs, viewModel.seedSource.nextLong(), topology);
+        }
+        game = viewModel.game;
+        game.addListener(gameListener);
+        scoreWriteQueue = ScoreWriteQueue.getInstance(this);
+        heatmapRecorder = TapHeatmapRecorder.getInstance(this);
+        gridRenderer = new ProgressiveGridRenderer(new ProgressiveGridRenderer.CellPainter() {
+            @Override
+            public void paintCell(int index) {
+                updateCell(index / cols, index % cols);
+            }
+        });
+        trace.step("engine ready");
 
         // Wait until grid layout is measured to create cells
         gameGrid.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
@@ -146,11 +197,41 @@ public class GameActivity extends AppCompatActivity {
                 gameGrid.getViewTreeObserver().removeOnGlobalLayoutListener(this);
                 Log.d(TAG, "Grid layout ready, creating cells.");
                 createGrid();
+                if (restored) {
+                    updateGrid();
+                    restoreDialogs();
+                }
+                trace.step("grid created");
             }
         });
 
-        // Start timer
-        startTimer();
+        // Once the board is on screen, start the deferred background work
+        trace.endOnFirstDraw(gameGrid, new Runnable() {
+            @Override
+            public void run() {
+                ((MinesweeperApp) getApplication()).warmUp();
+                winAnimator.preload(getResources(),
+                        winAnimationView.getLayoutParams().width, winAnimationView.getLayoutParams().height);
+                lossAnimator.preload(getResources(),
+                        lossAnimationView.getLayoutParams().width, lossAnimationView.getLayoutParams().height);
+            }
+        });
+
+        // Start timer — the label only changes when the shown second changes
+        GameTimer.OnSecondChangedListener timerListener = new GameTimer.OnSecondChangedListener() {
+            @Override
+            public void onSecondChanged(int seconds) {
+                tvTimer.setText("Time: " + seconds);
+            }
+        };
+        if (viewModel.gameTimer == null) {
+            viewModel.gameTimer = new GameTimer(timerListener);
+            gameTimer = viewModel.gameTimer;
+            startTimer();
+        } else {
+            gameTimer = viewModel.gameTimer;
+            gameTimer.setListener(timerListener);
+        }
 
         // Pause button listener
         btnPause.setOnClickListener(new View.OnClickListener() {
@@ -167,10 +248,77 @@ public class GameActivity extends AppCompatActivity {
                 }
             }
         });
+
+        // Flag mode: a tap flags immediately instead of revealing
+        btnFlagMode.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                flagMode = !flagMode;
+                btnFlagMode.setText(flagMode ? "🚩" : "⛏");
+                Log.d(TAG, "Flag mode: " + flagMode);
+            }
+        });
+
+        // Debug builds: long-press the timer for engine metrics
+        if (BuildConfig.DEBUG) {
+            tvTimer.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    showMetricsDialog();
+                    return true;
+                }
+            });
+        }
+    }
+
+    /**
+     * Commits any queued game results when the screen goes to the background.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        scoreWriteQueue.flush();
+        heatmapRecorder.flush();
+    }
+
+    /**
+     * Makes sure no frame callbacks keep running after the screen is gone.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        stopAnimation();
+        gridRenderer.cancel();
+
+        // Keep the screen state for a recreated activity; the view model
+        // itself is dropped when the screen is finished for good
+        viewModel.flagsLeft = flagsLeft;
+        viewModel.isPaused = isPaused;
+        viewModel.gameOver = gameOver;
+        viewModel.boardRevealed = boardRevealed;
+        viewModel.flagMode = flagMode;
+        viewModel.winMessage = winMessage;
+        gameTimer.setListener(null);
+        game.removeListener(gameListener); // The game outlives this activity on configuration changes
+    }
+
+    /**
+     * Returns the topology named in the intent; a missing or unknown name
+     * (e.g. from an older or foreign caller) falls back to SQUARE.
+     */
+    private static BoardTopology parseTopology(String name) {
+        if (name == null) return BoardTopology.SQUARE;
+        try {
+            return BoardTopology.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Unknown topology '" + name + "', using SQUARE");
+            return BoardTopology.SQUARE;
+        }
     }
 
     /**
-     * Creates the grid of clickable cells dynamically.
+     * Creates the grid of cells dynamically. The cells are plain views;
+     * all touches go through one {@link GridGestureDispatcher}.
      */
     private void createGrid() {
         gameGrid.removeAllViews();
@@ -183,9 +331,6 @@ public class GameActivity extends AppCompatActivity {
 
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
-                final int r = row;
-                final int c = col;
-
                 Button cellButton = new Button(this);
                 GridLayout.LayoutParams params = new GridLayout.LayoutParams();
                 params.width = cellSize;
@@ -197,172 +342,263 @@ public class GameActivity extends AppCompatActivity {
                 cellButton.setPadding(0, 0, 0, 0);
                 cellButton.setBackgroundResource(R.drawable.cell_background);
 
-                // Click: reveal cell
-                cellButton.setOnClickListener(new View.OnClickListener() {
+                // Touches are handled by one dispatcher for the whole grid
+                cellButton.setClickable(false);
+                cellButton.setLongClickable(false);
+                cellButton.setFocusable(false);
+
+                gameGrid.addView(cellButton);
+                cellButtons[row][col] = cellButton;
+            }
+        }
+
+        gestureDispatcher = new GridGestureDispatcher(gameGrid, rows, cols, cellSize,
+                new GridGestureDispatcher.Listener() {
                     @Override
-                    public void onClick(View v) {
-                        if (gameOver || isPaused) {
-                            return;
+                    public void onCellTap(int row, int col) {
+                        if (gameOver || isPaused) return;
+                        Log.d(TAG, "Cell tapped at (" + row + ", " + col + ")");
+                        if (flagMode) {
+                            handleCellFlag(row, col);
+                        } else if (!game.isRevealed(row, col)) {
+                            handleCellClick(row, col);
                         }
-                        Log.d(TAG, "Cell clicked at (" + r + ", " + c + ")");
-                        handleCellClick(r, c);
                     }
-                });
 
-                // Long click: flag cell
-                cellButton.setOnLongClickListener(new View.OnLongClickListener() {
                     @Override
-                    public boolean onLongClick(View v) {
-                        if (gameOver || isPaused) {
-                            return true;
+                    public void onCellDoubleTap(int row, int col) {
+                        if (gameOver || isPaused) return;
+                        if (game.isRevealed(row, col)) {
+                            Log.d(TAG, "Cell double-tapped (chord) at (" + row + ", " + col + ")");
+                            handleCellClick(row, col);
+                        } else {
+                            onCellTap(row, col);
+                        }
+                    }
+
+                    @Override
+                    public void onCellLongPress(int row, int col) {
+                        if (gameOver || isPaused) return;
+                        Log.d(TAG, "Cell long-pressed at (" + row + ", " + col + ")");
+                        gameGrid.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                        if (!flagMode) {
+                            handleCellFlag(row, col);
+                        } else if (!game.isRevealed(row, col)) {
+                            handleCellClick(row, col);
                         }
-                        Log.d(TAG, "Cell long-pressed (flag) at (" + r + ", " + c + ")");
-                        handleCellFlag(r, c);
-                        return true;
                     }
                 });
+        gestureDispatcher.setLongPressTimeout(getSharedPreferences(PREFS, MODE_PRIVATE)
+                .getInt(PREF_LONG_PRESS_MS, DEFAULT_LONG_PRESS_MS));
+        gameGrid.setOnTouchListener(gestureDispatcher);
+    }
 
-                gameGrid.addView(cellButton);
-                cellButtons[row][col] = cellButton;
-            }
+    /**
+     * Handles what happens when a cell is revealed.
+     * For an already revealed number this chords it.
+     */
+    private void handleCellClick(int row, int col) {
+        // The screen must show the previous move completely before the next one
+        gridRenderer.finish();
+        boolean firstMove = game.isFirstMove();
+        // Win and loss arrive through gameListener, during the move
+        if (game.isRevealed(row, col)) {
+            game.chordCell(row, col);
+        } else {
+            game.revealCell(row, col);
+        }
+        // A tap on a flagged cell reveals nothing and leaves the first click to come
+        if (firstMove && !game.isFirstMove() && game.getChangedCellCount() > 0) {
+            heatmapRecorder.recordFirstClick(difficulty, rows, cols, row, col);
+        }
+        if (!gameOver) {
+            gridRenderer.render(game.getChangedCells(), game.getChangedCellCount());
         }
     }
 
     /**
-     * Handles what happens when a cell is clicked (reveal action).
+     * Reacts to the end of the game, to flag changes and to a new board
+     * reported by the engine.
      */
-    private void handleCellClick(int row, int col) {
-        boolean safe = game.revealCell(row, col);
-        updateGrid();
+    private final GameListener gameListener = new GameListener() {
+        @Override
+        public void onBoardRegenerated() {
+            // A regenerated first click clears every flag: the cleared cells
+            // arrive through onFlagChanged, the revealed ones through gridRenderer
+            flagsLeft = bombs;
+            tvFlags.setText("Flags: " + flagsLeft);
+        }
+
+        @Override
+        public void onFlagChanged(int row, int col, boolean flagged) {
+            updateCell(row, col);
+            if (flagged) {
+                heatmapRecorder.recordFlag(difficulty, rows, cols, row, col);
+            }
+        }
 
-        if (!safe) {
+        @Override
+        public void onGameLost(int row, int col) {
             Log.d(TAG, "Bomb hit at (" + row + ", " + col + ")");
+            heatmapRecorder.recordDeath(difficulty, rows, cols, row, col);
             gameOver = true;
             stopTimer();
+            saveScoreToDatabase(false);
             revealAllCells();
             showEndGameDialog(false);
-        } else {
-            if (game.checkWin()) {
-                Log.d(TAG, "Player WON the game!");
-                gameOver = true;
-                stopTimer();
-                saveScoreToDatabase();
-                showEndGameDialog(true);
-            }
         }
-    }
+
+        @Override
+        public void onGameWon() {
+            Log.d(TAG, "Player WON the game!");
+            gameOver = true;
+            stopTimer();
+            winMessage = messageProvider.next();
+            saveScoreToDatabase(true);
+            gridRenderer.render(game.getChangedCells(), game.getChangedCellCount());
+            gridRenderer.finish();
+            showEndGameDialog(true);
+        }
+    };
 
     /**
-     * Saves the current score to the database when the player wins.
+     * Records the finished game (win or loss) in the database.
+     * Losses are not shown on the scoreboard but count towards the statistics.
      */
-    private void saveScoreToDatabase() {
-        String difficulty = getIntent().getStringExtra("difficulty");
-        if (difficulty == null) {
-            difficulty = "Easy";
+    private void saveScoreToDatabase(boolean won) {
+        long timestamp = System.currentTimeMillis();
+        long timeMillis = gameTimer.getElapsedMillis();
+        Score score = new Score(difficulty, timeMillis, timestamp, won);
+        if (won) {
+            score.setBoardMetrics(game.getBoard3BV(), game.getEffectiveClicks());
         }
-        String date = DateFormat.getDateTimeInstance().format(new Date());
-        Score score = new Score(difficulty, elapsedTime, date);
-        scoreDao.insert(score);
-        Log.d(TAG, "Score saved: " + difficulty + " - " + elapsedTime + "s at " + date);
+        scoreWriteQueue.enqueue(score);
+        Log.d(TAG, "Score saved: " + difficulty + " - " + timeMillis + "ms at " + timestamp + " (won: " + won
+                + ", 3BV: " + score.getBbbv() + ", efficiency: " + score.getEfficiency() + ")");
     }
 
     /**
-     * Handles flag placement/removal on long press.
+     * Handles flag placement/removal (long press, or tap in flag mode).
      */
     private void handleCellFlag(int row, int col) {
-        Cell cell = game.getCell(row, col);
-        if (cell.isRevealed()) {
+        if (game.isRevealed(row, col)) {
             return;
         }
+        gridRenderer.finish();
 
-        if (cell.isFlagged()) {
-            cell.setFlagged(false);
+        if (game.isFlagged(row, col)) {
+            game.setFlagged(row, col, false);
             flagsLeft = flagsLeft + 1;
         } else {
             if (flagsLeft > 0) {
-                cell.setFlagged(true);
+                game.setFlagged(row, col, true);
                 flagsLeft = flagsLeft - 1;
             }
         }
         tvFlags.setText("Flags: " + flagsLeft);
-        updateGrid();
     }
 
     /**
      * Updates the grid UI to reflect the current game state.
      */
     private void updateGrid() {
+        gridRenderer.cancel(); // Everything is repainted anyway
+        long start = System.nanoTime();
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
-                Cell cell = game.getCell(row, col);
-                Button btn = cellButtons[row][col];
-
-                if (cell.isRevealed()) {
-                    btn.setEnabled(false);
-                    if (cell.isBomb()) {
-                        btn.setText("💣");
-                        btn.setBackgroundColor(0xFFFF4444); // Red
-                    } else {
-                        int n = cell.getNeighborBombs();
-                        if (n == 0) {
-                            btn.setText("");
-                        } else {
-                            btn.setText(String.valueOf(n));
-                        }
-                        btn.setBackgroundColor(0xFFDDDDDD);
-                        // Color numbers
-                        if (n == 1) btn.setTextColor(0xFF0000FF);
-                        else if (n == 2) btn.setTextColor(0xFF008000);
-                        else if (n == 3) btn.setTextColor(0xFFFF0000);
-                        else if (n == 4) btn.setTextColor(0xFF800080);
-                        else if (n == 5) btn.setTextColor(0xFF8B0000);
-                        else if (n == 6) btn.setTextColor(0xFF00FFFF);
-                        else if (n == 7) btn.setTextColor(0xFF000000);
-                        else if (n == 8) btn.setTextColor(0xFF555555);
-                        else btn.setTextColor(0xFF000000);
-                    }
-                } else if (cell.isFlagged()) {
-                    btn.setText("🚩");
-                    btn.setTextColor(0xFF000000);
-                } else {
+                updateCell(row, col);
+            }
+        }
+        EngineMetrics.UPDATE_GRID.recordSince(start);
+    }
+
+    /**
+     * Updates the button of one cell to reflect its current state.
+     */
+    private void updateCell(int row, int col) {
+        Button btn = cellButtons[row][col];
+
+        if (game.isRevealed(row, col)) {
+            btn.setEnabled(false);
+            if (game.isBomb(row, col)) {
+                btn.setText("💣");
+                btn.setBackgroundColor(0xFFFF4444); // Red
+            } else {
+                int n = game.getNeighborBombs(row, col);
+                if (n == 0) {
                     btn.setText("");
-                    btn.setBackgroundResource(R.drawable.cell_background);
+                } else {
+                    btn.setText(String.valueOf(n));
                 }
+                btn.setBackgroundColor(0xFFDDDDDD);
+                // Color numbers
+                if (n == 1) btn.setTextColor(0xFF0000FF);
+                else if (n == 2) btn.setTextColor(0xFF008000);
+                else if (n == 3) btn.setTextColor(0xFFFF0000);
+                else if (n == 4) btn.setTextColor(0xFF800080);
+                else if (n == 5) btn.setTextColor(0xFF8B0000);
+                else if (n == 6) btn.setTextColor(0xFF00FFFF);
+                else if (n == 7) btn.setTextColor(0xFF000000);
+                else if (n == 8) btn.setTextColor(0xFF555555);
+                else btn.setTextColor(0xFF000000);
             }
+        } else if (game.isFlagged(row, col)) {
+            btn.setText("🚩");
+            btn.setTextColor(0xFF000000);
+        } else {
+            btn.setEnabled(true);
+            btn.setText("");
+            btn.setBackgroundResource(R.drawable.cell_background);
         }
     }
 
+    /**
+     * After a configuration change, shows again the dialog that was open
+     * (the pause menu or the end-of-game dialog); dialogs don't survive
+     * the old activity.
+     */
+    private void restoreDialogs() {
+        if (gameOver && !boardRevealed) {
+            showEndGameDialogAfterAnimation(game.checkWin());
+        } else if (isPaused && !gameOver) {
+            showPauseMenu();
+        }
+    }
+
+    /**
+     * Starts a new game of the same difficulty in place (Retry): the board
+     * storage, the cell views and this activity are all reused.
+     */
+    private void resetGame() {
+        long start = System.nanoTime();
+        stopAnimation();
+        gridRenderer.cancel();
+
+        game.reset(viewModel.seedSource.nextLong()); // Resets flagsLeft through onBoardRegenerated
+        gameOver = false;
+        boardRevealed = false;
+        winMessage = null;
+        btnPause.setText("Pause");
+        updateGrid();
+        startTimer();
+
+        Log.d(TAG, "Game reset in " + (System.nanoTime() - start) / 1000 + " µs");
+    }
+
     /**
      * Reveals the entire grid when the player loses.
      */
     private void revealAllCells() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Cell cell = game.getCell(row, col);
-                cell.setRevealed(true);
-            }
-        }
+        game.revealAll();
         updateGrid();
     }
 
     /**
-     * Starts the timer that counts seconds during the game.
+     * Starts the timer that counts the playing time.
      */
     private void startTimer() {
         isPaused = false;
-        elapsedTime = 0;
-        timerRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (!isPaused) {
-                    elapsedTime = elapsedTime + 1;
-                    tvTimer.setText("Time: " + elapsedTime);
-                    timerHandler.postDelayed(this, 1000);
-                }
-            }
-        };
-        timerHandler.postDelayed(timerRunnable, 1000);
-        Log.d(TAG, "Timer started.");
+        gameTimer.start();
     }
 
     /**
@@ -370,8 +606,50 @@ public class GameActivity extends AppCompatActivity {
      */
     private void stopTimer() {
         isPaused = true;
-        timerHandler.removeCallbacks(timerRunnable);
-        Log.d(TAG, "Timer stopped at " + elapsedTime + " seconds.");
+        gameTimer.stop();
+    }
+
+    /**
+     * Continues the timer after the pause menu is closed.
+     */
+    private void resumeTimer() {
+        isPaused = false;
+        gameTimer.resume();
+    }
+
+    /**
+     * Debug panel: latency percentiles and counters from {@link EngineMetrics}.
+     * "Copy JSON" puts the full dump on the clipboard (and in Logcat).
+     */
+    private void showMetricsDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(GameActivity.this);
+        builder.setTitle("Engine metrics");
+        builder.setMessage(EngineMetrics.summary());
+
+        builder.setPositiveButton("Close", null);
+
+        builder.setNeutralButton("Copy JSON", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                try {
+                    String json = EngineMetrics.toJson().toString(2);
+                    Log.i(TAG, "Engine metrics: " + json);
+                    ClipboardManager clipboard = (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
+                    clipboard.setPrimaryClip(ClipData.newPlainText("Engine metrics", json));
+                } catch (JSONException e) {
+                    Log.e(TAG, "Could not dump metrics", e);
+                }
+            }
+        });
+
+        builder.setNegativeButton("Reset", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                EngineMetrics.reset();
+            }
+        });
+
+        builder.show();
     }
 
     /**
@@ -379,6 +657,7 @@ public class GameActivity extends AppCompatActivity {
      */
     private void showPauseMenu() {
         isPaused = true;
+        gameTimer.pause();
         AlertDialog.Builder builder = new AlertDialog.Builder(GameActivity.this);
         builder.setTitle("Game Paused");
         builder.setCancelable(true); // ✅ allow outside tap
@@ -389,8 +668,7 @@ public class GameActivity extends AppCompatActivity {
             public void onClick(DialogInterface dialog, int which) {
                 Log.d("GameActivity", "Pause menu: Return to Game clicked");
                 if (!gameOver && !boardRevealed) {
-                    isPaused = false;
-                    timerHandler.postDelayed(timerRunnable, 1000);
+                    resumeTimer();
                 }
                 dialog.dismiss();
             }
@@ -414,10 +692,7 @@ public class GameActivity extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialog, int which) {
                 Log.d("GameActivity", "Pause menu: Retry clicked");
-                stopTimer();
-                Intent intent = getIntent();
-                finish();
-                startActivity(intent);
+                resetGame();
             }
         });
 
@@ -427,8 +702,7 @@ public class GameActivity extends AppCompatActivity {
             public void onCancel(DialogInterface dialog) {
                 Log.d("GameActivity", "Pause menu: dismissed by tapping outside — acting as Return to Game");
                 if (!gameOver && !boardRevealed) {
-                    isPaused = false;
-                    timerHandler.postDelayed(timerRunnable, 1000);
+                    resumeTimer();
                 }
                 dialog.dismiss();
             }
@@ -437,41 +711,6 @@ public class GameActivity extends AppCompatActivity {
         builder.show();
     }
 
-    /**
-     * Gets using Gemini's API a congratulation massage for the user
-     */
-    private String generateMessageSync() {
-        try {
-            GenerateContentResponse response = client.models.generateContent(
-                    MODEL,
-                    FIXED_PROMPT,
-                    null
-            );
-            String text = response.text();
-            return text != null ? text : "Well Played!";
-        } catch (Exception e) {
-            Log.d(TAG, "Exception caught" + e.getMessage());
-            return "Exceptionally Played!";
-        }
-    }
-
-    private void generateMessage() {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                final String result = generateMessageSync();
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        GeminiMassage = result;
-                        Toast.makeText(GameActivity.this, "Message generated with Gemini API: " + GeminiMassage, Toast.LENGTH_SHORT).show();
-                        Log.d(TAG, "Message generated with Gemini API: " + GeminiMassage);
-                    }
-                });
-            }
-        }).start();
-    }
-
     /**
      * Shows the end-game dialog with animation (for win or loss).
      */
@@ -505,11 +744,11 @@ public class GameActivity extends AppCompatActivity {
         String message;
 
         if (win) {
-            title = GeminiMassage;
-            message = "You cleared the board in " + elapsedTime + " seconds!";
+            title = winMessage;
+            message = "You cleared the board in " + Score.formatSeconds(gameTimer.getElapsedMillis()) + " seconds!";
         } else {
             title = "💣 Game Over";
-            message = "You hit a bomb after " + elapsedTime + " seconds.";
+            message = "You hit a bomb after " + Score.formatSeconds(gameTimer.getElapsedMillis()) + " seconds.";
         }
 
         AlertDialog.Builder builder = new AlertDialog.Builder(GameActivity.this);
@@ -522,10 +761,6 @@ public class GameActivity extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialog, int which) {
                 Intent intent = new Intent(GameActivity.this, ScoreboardActivity.class);
-                String difficulty = getIntent().getStringExtra("difficulty");
-                if (difficulty == null) {
-                    difficulty = "Easy";
-                }
                 intent.putExtra("difficulty", difficulty);
                 startActivity(intent);
             }
@@ -546,9 +781,7 @@ public class GameActivity extends AppCompatActivity {
         builder.setPositiveButton("Retry", new DialogInterface.OnClickListener() {
             @Override
             public void onClick(DialogInterface dialog, int which) {
-                Intent intent = getIntent();
-                finish();
-                startActivity(intent);
+                resetGame();
             }
         });
 
@@ -562,83 +795,33 @@ public class GameActivity extends AppCompatActivity {
                 isPaused = true; // freeze game
                 gameOver = true; // prevent unpausing timer later
                 // Hide any visible animation
-                winAnimationView.setVisibility(View.GONE);
-                lossAnimationView.setVisibility(View.GONE);
+                winAnimator.stop();
+                lossAnimator.stop();
             }
         });
 
         // Hide animations before showing dialog
-        winAnimationView.setVisibility(View.GONE);
-        lossAnimationView.setVisibility(View.GONE);
+        winAnimator.stop();
+        lossAnimator.stop();
 
         AlertDialog dialog = builder.create();
         dialog.show();
     }
 
     /**
-     * Plays the win animation
+     * Plays the win animation (loops until the dialog appears)
      */
     private void showWinAnimation() {
-        if (isAnimating) return;
-        isAnimating = true;
-
-        winAnimationView.setVisibility(View.VISIBLE);
-        winAnimationView.bringToFront();
-
-        playAnimation(winAnimationView, winFrames, 0, 80, true);
+        if (winAnimator.isRunning() || lossAnimator.isRunning()) return;
+        winAnimator.start();
     }
 
     /**
-     * Plays the loss animation
+     * Plays the loss animation (holds the last frame briefly, then hides itself)
      */
     private void showLossAnimation() {
-        if (isAnimating) return;
-        isAnimating = true;
-
-        lossAnimationView.setVisibility(View.VISIBLE);
-        lossAnimationView.bringToFront();
-
-        playAnimation(lossAnimationView, lossFrames, 0, 120, false);
-    }
-
-    /**
-     * Recursive method to play frame-by-frame animation
-     * @param imageView The ImageView to animate
-     * @param frames Array of drawable resource IDs
-     * @param frameIndex Current frame index
-     * @param delayMs Delay between frames in milliseconds
-     * @param loop Whether to loop the animation
-     */
-    private void playAnimation(final ImageView imageView, final int[] frames,
-                               final int frameIndex, final int delayMs, final boolean loop) {
-        if (frameIndex >= frames.length) {
-            if (loop) {
-                // Loop the animation
-                playAnimation(imageView, frames, 0, delayMs, loop);
-            } else {
-                // Animation complete
-                isAnimating = false;
-                // Keep the last frame visible for a moment
-                animationHandler.postDelayed(new Runnable() {
-                    @Override
-                    public void run() {
-                        imageView.setVisibility(View.GONE);
-                    }
-                }, 500);
-            }
-            return;
-        }
-
-        // Set current frame
-        imageView.setImageResource(frames[frameIndex]);
-
-        // Schedule next frame
-        animationHandler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                playAnimation(imageView, frames, frameIndex + 1, delayMs, loop);
-            }
-        }, delayMs);
+        if (winAnimator.isRunning() || lossAnimator.isRunning()) return;
+        lossAnimator.start();
     }
 
     /**
@@ -646,9 +829,8 @@ public class GameActivity extends AppCompatActivity {
      */
     private void stopAnimation() {
         animationHandler.removeCallbacksAndMessages(null);
-        isAnimating = false;
-        winAnimationView.setVisibility(View.GONE);
-        lossAnimationView.setVisibility(View.GONE);
+        winAnimator.stop();
+        lossAnimator.stop();
     }
 
     /**
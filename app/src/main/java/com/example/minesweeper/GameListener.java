@@ -0,0 +1,47 @@
+package com.example.minesweeper;
+
+/**
+ * GameListener
+ * ------------
+ * Receives what happens in a {@link MinesweeperGame}, as it happens.
+ *
+ * All callbacks take primitive arguments, so delivering an event allocates
+ * nothing. They run on the thread that made the move, after the game state
+ * (and its snapshot, if enabled) is up to date, so a listener may read the
+ * game freely. Every method has an empty default; implement only what you need.
+ */
+public interface GameListener {
+
+    /**
+     * A cell was revealed. During a flood this is called for every cell, in
+     * breadth-first order from the tapped cell, followed by
+     * {@link #onFloodCompleted}.
+     */
+    default void onCellRevealed(int row, int col, int neighborBombs) {
+    }
+
+    /** A flood starting at (row, col) revealed {@code cells} cells (including the start). */
+    default void onFloodCompleted(int row, int col, int cells) {
+    }
+
+    /** A flag was placed or removed. */
+    default void onFlagChanged(int row, int col, boolean flagged) {
+    }
+
+    /** The last safe cell was revealed. */
+    default void onGameWon() {
+    }
+
+    /** A bomb was revealed at (row, col). */
+    default void onGameLost(int row, int col) {
+    }
+
+    /**
+     * The whole board changed: reset, or regenerated after an unsafe first
+     * click. A regeneration clears the flags; each is then reported through
+     * {@link #onFlagChanged}, and the move's revealed cells follow as usual,
+     * so a listener only needs a full repaint after a reset.
+     */
+    default void onBoardRegenerated() {
+    }
+}
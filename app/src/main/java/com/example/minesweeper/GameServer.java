@@ -0,0 +1,345 @@
+package com.example.minesweeper;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameServer
+ * ----------
+ * Hosts many {@link GameSession}s at once, without any UI, for a web front
+ * end or bot tournaments.
+ *
+ * Sessions live in a {@link GameSessionStore}, which may spill idle ones
+ * to disk. They can be driven in-process (see {@link #createSession} and
+ * {@link #getSession}) or over a minimal HTTP/1.1 endpoint that only
+ * listens on the loopback address. Every request is a GET with a query
+ * string and gets a plain-text answer; connections are kept alive:
+ *
+ *   /new?rows=16&cols=16&bombs=40[&seed=1][&topology=TORUS]  -> session id
+ *   /move?id=1&m=reveal|flag|unflag|chord&r=3&c=4            -> ok / bomb / won / over / invalid
+ *   /close?id=1                                              -> ok
+ *   /stats                                                   -> sessions=.. spilled=.. moves=..
+ *
+ * Each connection is served by one thread of a fixed pool, so different
+ * sessions are played in parallel while the moves of one session are
+ * applied one at a time (see {@link GameSession#apply}).
+ */
+public class GameServer {
+
+    private static final String TAG = "GameServer";
+
+    /** Connections served at the same time; further clients wait to be accepted */
+    private static final int MAX_CONNECTIONS = 64;
+
+    /** Longest accepted request line or header line */
+    private static final int MAX_LINE = 2048;
+
+    /** Largest board a client may create over HTTP (cells) */
+    static final int MAX_CELLS = 1 << 22;
+
+    private final GameSessionStore sessions;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong totalMoves = new AtomicLong();
+
+    private ServerSocket serverSocket;
+    private ExecutorService connectionPool;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    public GameServer(GameSessionStore sessions) {
+        this.sessions = sessions;
+    }
+
+    /** A server whose sessions all stay in memory. */
+    public GameServer() {
+        this(new GameSessionStore());
+    }
+
+    // ------------------ SESSIONS ------------------
+
+    /** Creates and registers a new session. */
+    public GameSession createSession(int rows, int cols, int bombs, long seed, BoardTopology topology) {
+        long id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, new MinesweeperGame(rows, cols, bombs, seed, topology));
+        sessions.add(session);
+        return session;
+    }
+
+    /**
+     * Returns the session with this id, or null if there is none.
+     * Use {@link #move} to play it, so the store knows it is in use.
+     */
+    public GameSession getSession(long id) {
+        return sessions.get(id);
+    }
+
+    /** Removes a session. */
+    public void closeSession(long id) {
+        sessions.remove(id);
+    }
+
+    /**
+     * Applies a move to a session; returns a GameSession RESULT_ constant.
+     * Only moves that were actually applied count towards {@link #getTotalMoves}.
+     */
+    public int move(long id, int move, int row, int col) {
+        int result = sessions.apply(id, move, row, col);
+        if (result != GameSession.RESULT_GAME_OVER && result != GameSession.RESULT_INVALID) {
+            totalMoves.incrementAndGet();
+        }
+        return result;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getTotalMoves() {
+        return totalMoves.get();
+    }
+
+    // ------------------ HTTP ENDPOINT ------------------
+
+    /**
+     * Starts listening on the loopback address.
+     * @param port Port to listen on, or 0 for any free port.
+     * @return The port actually used.
+     */
+    public synchronized int start(int port) throws IOException {
+        if (running) return serverSocket.getLocalPort();
+
+        serverSocket = new ServerSocket(port, MAX_CONNECTIONS, InetAddress.getLoopbackAddress());
+        connectionPool = Executors.newFixedThreadPool(MAX_CONNECTIONS);
+        running = true;
+
+        acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptLoop();
+            }
+        }, "GameServer-accept");
+        acceptThread.start();
+
+        Log.d(TAG, "Listening on 127.0.0.1:" + serverSocket.getLocalPort());
+        return serverSocket.getLocalPort();
+    }
+
+    /** Stops listening and closes all connections. Sessions are kept. */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing server socket", e);
+        }
+        connectionPool.shutdownNow();
+        Log.d(TAG, "Stopped.");
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                });
+            } catch (IOException e) {
+                if (running) Log.e(TAG, "Accept failed", e);
+            }
+        }
+    }
+
+    /** Serves requests on one keep-alive connection until the client closes it. */
+    private void serve(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            StringBuilder line = new StringBuilder();
+
+            while (running) {
+                if (!readLine(in, line)) break;
+                String requestLine = line.toString();
+
+                // Headers: only Content-Length and Connection matter
+                int contentLength = 0;
+                boolean close = false;
+                while (readLine(in, line) && line.length() > 0) {
+                    String header = line.toString().toLowerCase();
+                    if (header.startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(header.substring(15).trim());
+                    } else if (header.startsWith("connection:") && header.contains("close")) {
+                        close = true;
+                    }
+                }
+                for (int i = 0; i < contentLength; i++) {
+                    if (in.read() < 0) break;
+                }
+
+                int status = 200;
+                String body;
+                try {
+                    body = handle(requestLine);
+                    if (body == null) {
+                        status = 404;
+                        body = "not found";
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Also covers NumberFormatException from malformed parameters
+                    status = 400;
+                    body = "bad request: " + e.getMessage();
+                }
+                writeResponse(out, status, body, close);
+                if (close) break;
+            }
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            Log.w(TAG, "Connection error", e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Handles one request line (e.g. "GET /move?id=1&m=reveal&r=0&c=0 HTTP/1.1").
+     * @return The response body, or null for an unknown path.
+     */
+    String handle(String requestLine) {
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) throw new IllegalArgumentException("malformed request line");
+
+        String target = parts[1];
+        int query = target.indexOf('?');
+        String path = query >= 0 ? target.substring(0, query) : target;
+        Map<String, String> params = parseQuery(query >= 0 ? target.substring(query + 1) : "");
+
+        switch (path) {
+            case "/move": {
+                int result = move(Long.parseLong(required(params, "id")), parseMove(required(params, "m")),
+                        Integer.parseInt(required(params, "r")), Integer.parseInt(required(params, "c")));
+                return GameSession.resultName(result);
+            }
+            case "/new": {
+                int rows = Integer.parseInt(required(params, "rows"));
+                int cols = Integer.parseInt(required(params, "cols"));
+                int bombs = Integer.parseInt(required(params, "bombs"));
+                String seed = params.get("seed");
+                String topology = params.get("topology");
+                checkBoard(rows, cols, bombs);
+                GameSession session = createSession(rows, cols, bombs,
+                        seed != null ? Long.parseLong(seed) : System.nanoTime(),
+                        topology != null ? parseTopology(topology) : BoardTopology.SQUARE);
+                return Long.toString(session.getId());
+            }
+            case "/close":
+                closeSession(Long.parseLong(required(params, "id")));
+                return "ok";
+            case "/stats":
+                return "sessions=" + getSessionCount() + " spilled=" + sessions.getSpilledCount()
+                        + " moves=" + getTotalMoves();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Rejects board sizes the engine can't allocate or fill, before anything
+     * is allocated: only IllegalArgumentException is answered with a 400,
+     * anything else would end the connection thread. Every accepted board
+     * can be played: the first click is safe at least on the clicked cell,
+     * also when the bombs leave no room for a safe area around it.
+     */
+    private static void checkBoard(int rows, int cols, int bombs) {
+        if (rows < 1 || cols < 1) throw new IllegalArgumentException("rows and cols must be at least 1");
+        long cells = (long) rows * cols;
+        if (cells > MAX_CELLS) throw new IllegalArgumentException("board larger than " + MAX_CELLS + " cells");
+        if (bombs < 0 || bombs >= cells) throw new IllegalArgumentException("bombs must be in [0, " + cells + ")");
+    }
+
+    private static BoardTopology parseTopology(String name) {
+        for (BoardTopology topology : BoardTopology.values()) {
+            if (topology.name().equals(name)) return topology;
+        }
+        throw new IllegalArgumentException("unknown topology " + name);
+    }
+
+    private static int parseMove(String name) {
+        switch (name) {
+            case "reveal":
+                return GameSession.REVEAL;
+            case "flag":
+                return GameSession.FLAG;
+            case "unflag":
+                return GameSession.UNFLAG;
+            case "chord":
+                return GameSession.CHORD;
+            default:
+                throw new IllegalArgumentException("unknown move " + name);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) throw new IllegalArgumentException("missing " + name);
+        return value;
+    }
+
+    /** Reads one CRLF-terminated line into {@code line}; false at end of stream. */
+    private static boolean readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') return true;
+            if (b != '\r') {
+                if (line.length() >= MAX_LINE) throw new IOException("line too long");
+                line.append((char) b);
+            }
+        }
+        return line.length() > 0;
+    }
+
+    private static void writeResponse(OutputStream out, int status, String body, boolean close) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String reason = status == 200 ? "OK" : status == 404 ? "Not Found" : "Bad Request";
+        String head = "HTTP/1.1 " + status + " " + reason + "\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + (close ? "Connection: close\r\n" : "")
+                + "\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.minesweeper;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameServerLoadGenerator
+ * -----------------------
+ * Measures how many moves per second a {@link GameServer} sustains over
+ * loopback. Each client thread keeps one connection and one session,
+ * plays random reveals (starting a new game whenever one ends) and keeps
+ * up to {@code pipelineDepth} requests in flight, so the measurement is
+ * not bounded by one round trip per move.
+ *
+ * Usage (e.g. from a debug screen or an instrumentation test):
+ * <pre>
+ *   GameServer server = new GameServer();
+ *   int port = server.start(0);
+ *   GameServerLoadGenerator.Result result =
+ *           new GameServerLoadGenerator(port, 8, 16).run(10_000);
+ *   server.stop();
+ * </pre>
+ */
+public class GameServerLoadGenerator {
+
+    private static final String TAG = "GameServerLoadGen";
+
+    // Board played by every client (Expert)
+    private static final int ROWS = 16, COLS = 30, BOMBS = 99;
+
+    private final int port;
+    private final int clients;
+    private final int pipelineDepth;
+
+    /** Outcome of one run. */
+    public static final class Result {
+        public final long moves;
+        public final long games;
+        public final long errors;
+        public final long elapsedMillis;
+
+        Result(long moves, long games, long errors, long elapsedMillis) {
+            this.moves = moves;
+            this.games = games;
+            this.errors = errors;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getMovesPerSecond() {
+            return elapsedMillis == 0 ? 0 : moves * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return moves + " moves in " + elapsedMillis + " ms ("
+                    + Math.round(getMovesPerSecond()) + " moves/s), "
+                    + games + " games, " + errors + " errors";
+        }
+    }
+
+    public GameServerLoadGenerator(int port, int clients, int pipelineDepth) {
+        this.port = port;
+        this.clients = clients;
+        this.pipelineDepth = Math.max(1, pipelineDepth);
+    }
+
+    /** Runs all clients for {@code durationMillis} and returns the totals. */
+    public Result run(long durationMillis) throws InterruptedException {
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong games = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final long deadline = System.nanoTime() + durationMillis * 1_000_000L;
+
+        Thread[] threads = new Thread[clients];
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            final long seed = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runClient(seed, deadline, moves, games);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Client failed", e);
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "LoadClient-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        Result result = new Result(moves.get(), games.get(), errors.get(), elapsedMillis);
+        Log.d(TAG, "Load run: " + result);
+        return result;
+    }
+
+    private void runClient(long seed, long deadline, AtomicLong moves, AtomicLong games) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            StringBuilder line = new StringBuilder();
+
+            String sessionId = newGame(in, out, line, random.nextLong());
+            while (System.nanoTime() < deadline) {
+                // Send a batch of moves, then read all their answers
+                for (int i = 0; i < pipelineDepth; i++) {
+                    writeRequest(out, "/move?id=" + sessionId + "&m=reveal&r=" + random.nextInt(ROWS)
+                            + "&c=" + random.nextInt(COLS));
+                }
+                out.flush();
+
+                // Moves sent after the one that ended the game come back "over" and
+                // changed nothing, so they are not counted
+                boolean ended = false;
+                int applied = 0;
+                for (int i = 0; i < pipelineDepth; i++) {
+                    String answer = readResponse(in, line);
+                    if (answer.equals("ok")) {
+                        applied++;
+                    } else if (answer.equals("bomb") || answer.equals("won")) {
+                        applied++;
+                        ended = true;
+                    } else {
+                        ended = true;
+                    }
+                }
+                moves.addAndGet(applied);
+
+                if (ended) {
+                    writeRequest(out, "/close?id=" + sessionId);
+                    out.flush();
+                    readResponse(in, line);
+                    games.incrementAndGet();
+                    sessionId = newGame(in, out, line, random.nextLong());
+                }
+            }
+        }
+    }
+
+    private String newGame(InputStream in, OutputStream out, StringBuilder line, long seed) throws IOException {
+        writeRequest(out, "/new?rows=" + ROWS + "&cols=" + COLS + "&bombs=" + BOMBS + "&seed=" + seed);
+        out.flush();
+        return readResponse(in, line);
+    }
+
+    private static void writeRequest(OutputStream out, String target) throws IOException {
+        out.write(("GET " + target + " HTTP/1.1\r\nHost: 127.0.0.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Reads one response and returns its body. */
+    private static String readResponse(InputStream in, StringBuilder line) throws IOException {
+        readLine(in, line);
+        if (!line.toString().startsWith("HTTP/1.1 200")) throw new IOException("Unexpected status: " + line);
+
+        int contentLength = 0;
+        while (readLine(in, line) > 0) {
+            if (line.toString().toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        byte[] body = new byte[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int n = in.read(body, read, contentLength - read);
+            if (n < 0) throw new IOException("Connection closed");
+            read += n;
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static int readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) throw new IOException("Connection closed");
+            if (b != '\r') line.append((char) b);
+        }
+        return line.length();
+    }
+}
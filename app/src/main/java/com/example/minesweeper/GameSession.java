@@ -0,0 +1,140 @@
+package com.example.minesweeper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * GameSession
+ * -----------
+ * One game hosted by {@link GameServer}.
+ *
+ * Moves of a session are applied one at a time (the session is its own
+ * lock), while different sessions can be played in parallel on different
+ * threads. {@link MinesweeperGame} itself is not thread-safe, so it must
+ * only be used through this class while the session is hosted.
+ */
+public class GameSession {
+
+    /** Move kinds understood by {@link #apply(int, int, int)} */
+    public static final int REVEAL = 0;
+    public static final int FLAG = 1;
+    public static final int UNFLAG = 2;
+    public static final int CHORD = 3;
+
+    /** Results of {@link #apply(int, int, int)} */
+    public static final int RESULT_OK = 0;
+    public static final int RESULT_BOMB = 1;
+    public static final int RESULT_WON = 2;
+    public static final int RESULT_GAME_OVER = 3; // The game had already ended; nothing changed
+    public static final int RESULT_INVALID = 4;   // Unknown move or cell outside the board
+
+    private final long id;
+    private final MinesweeperGame game;
+    private boolean finished;
+    private int moves;
+    private volatile long lastAccessNanos;
+
+    // Callers currently using this session; guarded by its GameSessionStore stripe lock
+    int pins;
+
+    public GameSession(long id, MinesweeperGame game) {
+        this.id = id;
+        this.game = game;
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Applies one move and returns one of the RESULT_ constants.
+     */
+    public synchronized int apply(int move, int row, int col) {
+        lastAccessNanos = System.nanoTime();
+        if (finished) return RESULT_GAME_OVER;
+        if (row < 0 || row >= game.getRows() || col < 0 || col >= game.getCols()) return RESULT_INVALID;
+
+        boolean safe;
+        switch (move) {
+            case REVEAL:
+                safe = game.revealCell(row, col);
+                break;
+            case CHORD:
+                safe = game.chordCell(row, col);
+                break;
+            case FLAG:
+            case UNFLAG:
+                game.setFlagged(row, col, move == FLAG);
+                moves++;
+                return RESULT_OK;
+            default:
+                return RESULT_INVALID;
+        }
+        moves++;
+
+        if (!safe) {
+            finished = true;
+            return RESULT_BOMB;
+        }
+        if (game.checkWin()) {
+            finished = true;
+            return RESULT_WON;
+        }
+        return RESULT_OK;
+    }
+
+    /** Writes the session (including its game) in a compact binary form. */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(id);
+        out.writeBoolean(finished);
+        out.writeInt(moves);
+        game.writeTo(out);
+    }
+
+    /** Reads a session written by {@link #writeTo(DataOutputStream)}. */
+    public static GameSession readFrom(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        boolean finished = in.readBoolean();
+        int moves = in.readInt();
+        GameSession session = new GameSession(id, MinesweeperGame.readFrom(in));
+        session.finished = finished;
+        session.moves = moves;
+        return session;
+    }
+
+    /** Approximate heap size of this session, in bytes. */
+    public synchronized long estimateMemoryBytes() {
+        return 48 + game.estimateMemoryBytes();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized int getMoves() {
+        return moves;
+    }
+
+    /** {@link System#nanoTime()} of the last move (or of the creation). */
+    public long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    /** Name of a result code, as sent to HTTP clients. */
+    public static String resultName(int result) {
+        switch (result) {
+            case RESULT_OK:
+                return "ok";
+            case RESULT_BOMB:
+                return "bomb";
+            case RESULT_WON:
+                return "won";
+            case RESULT_GAME_OVER:
+                return "over";
+            default:
+                return "invalid";
+        }
+    }
+}
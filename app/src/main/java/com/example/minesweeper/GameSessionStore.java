@@ -0,0 +1,378 @@
+package com.example.minesweeper;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * GameSessionStore
+ * ----------------
+ * Registry of the sessions hosted by {@link GameServer}, with a memory budget.
+ *
+ * Sessions are spread over {@link #STRIPES} stripes by id. Each stripe has
+ * its own lock and keeps its resident sessions in access order, so moves on
+ * sessions of different stripes never contend.
+ *
+ * When the resident sessions exceed the budget, a background thread spills
+ * the least recently used idle sessions of each stripe to files (compact
+ * binary form, deflated) until usage is back under the low watermark.
+ * The stripe lock is only held to pick and unlink a session; the file is
+ * written outside it. A spilled session is restored transparently by the
+ * next move (or {@link #get}).
+ *
+ * Sessions in use by a move are pinned and never spilled. A session that is
+ * used again while its file is being written is simply kept resident and
+ * the file is discarded.
+ */
+public class GameSessionStore {
+
+    private static final String TAG = "GameSessionStore";
+
+    /** Number of lock stripes (power of two) */
+    static final int STRIPES = 64;
+
+    /** Spilling stops once resident memory is below this share of the budget */
+    private static final double LOW_WATERMARK = 0.9;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final File spillDir;
+    private final long budgetBytes;
+
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final AtomicInteger spilledCount = new AtomicInteger();
+    private final AtomicBoolean spillScheduled = new AtomicBoolean(false);
+    private final ExecutorService spillExecutor;
+
+    /** One lock stripe. All fields are guarded by the stripe itself. */
+    private static final class Stripe {
+        final LinkedHashMap<Long, GameSession> resident = new LinkedHashMap<>(16, 0.75f, true);
+        final HashMap<Long, GameSession> spilling = new HashMap<>();
+        final HashMap<Long, Long> residentSize = new HashMap<>(); // Bytes accounted per resident session
+        final Object restoreLock = new Object(); // Serializes file reads of this stripe, not its moves
+    }
+
+    /**
+     * @param spillDir    Directory for spilled sessions, or null to keep everything in memory.
+     * @param budgetBytes Memory budget of the resident sessions (ignored without spillDir).
+     */
+    public GameSessionStore(File spillDir, long budgetBytes) {
+        this.spillDir = spillDir;
+        this.budgetBytes = spillDir != null ? budgetBytes : Long.MAX_VALUE;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        spillExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "GameSessionStore-spill");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /** A store that never spills. */
+    public GameSessionStore() {
+        this(null, Long.MAX_VALUE);
+    }
+
+    private Stripe stripeFor(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 58) & (STRIPES - 1)];
+    }
+
+    // ------------------ SESSIONS ------------------
+
+    /** Adds a new session. */
+    public void add(GameSession session) {
+        Stripe stripe = stripeFor(session.getId());
+        long size = session.estimateMemoryBytes();
+        synchronized (stripe) {
+            stripe.resident.put(session.getId(), session);
+            stripe.residentSize.put(session.getId(), size);
+        }
+        sessionCount.incrementAndGet();
+        addResidentBytes(size);
+    }
+
+    /**
+     * Applies a move to a session, restoring it from disk if needed.
+     * @return A GameSession RESULT_ constant (RESULT_INVALID for an unknown id).
+     */
+    public int apply(long id, int move, int row, int col) {
+        GameSession session = pin(id);
+        if (session == null) return GameSession.RESULT_INVALID;
+        try {
+            return session.apply(move, row, col);
+        } finally {
+            unpin(session);
+        }
+    }
+
+    /**
+     * Returns a session (restoring it if needed), or null if there is none.
+     * The session may be spilled again at any time; use {@link #apply} for moves.
+     */
+    public GameSession get(long id) {
+        GameSession session = pin(id);
+        if (session != null) unpin(session);
+        return session;
+    }
+
+    /**
+     * Removes a session, resident or spilled. Holds the stripe's restore lock,
+     * so a concurrent {@link #pin} can't bring the session back from its file.
+     */
+    public void remove(long id) {
+        Stripe stripe = stripeFor(id);
+        boolean removed;
+        synchronized (stripe.restoreLock) {
+            synchronized (stripe) {
+                removed = stripe.resident.remove(id) != null;
+                Long size = stripe.residentSize.remove(id);
+                if (size != null) addResidentBytes(-size);
+                if (stripe.spilling.remove(id) != null) removed = true;
+            }
+            if (spillDir != null) {
+                // A file still being written was never counted as spilled
+                if (fileFor(id).delete() && !removed) {
+                    spilledCount.decrementAndGet();
+                    removed = true;
+                }
+            }
+        }
+        if (removed) sessionCount.decrementAndGet();
+    }
+
+    /** Number of sessions, resident or spilled. */
+    public int size() {
+        return sessionCount.get();
+    }
+
+    /** Number of sessions currently spilled to disk. */
+    public int getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /** Estimated memory used by resident sessions, in bytes. */
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    /** Finds a session and marks it in use; restores it from disk if needed. */
+    private GameSession pin(long id) {
+        Stripe stripe = stripeFor(id);
+        GameSession session = pinResident(stripe, id);
+        if (session != null || spillDir == null) return session;
+
+        // Read the file without holding the stripe lock, so other sessions keep moving
+        synchronized (stripe.restoreLock) {
+            // Another thread may have restored it meanwhile
+            session = pinResident(stripe, id);
+            if (session != null) return session;
+
+            GameSession restored = restore(id);
+            if (restored == null) return null;
+            // Delete before linking, so a later spill of this session can't race with the delete
+            File file = fileFor(id);
+            if (file.delete()) {
+                spilledCount.decrementAndGet();
+            } else if (!file.exists()) {
+                return null; // Removed while it was being read
+            }
+            synchronized (stripe) {
+                makeResident(stripe, restored);
+                restored.pins++;
+            }
+            return restored;
+        }
+    }
+
+    /** Pins a session that is in memory, or returns null. */
+    private GameSession pinResident(Stripe stripe, long id) {
+        synchronized (stripe) {
+            GameSession session = stripe.resident.get(id);
+            if (session == null) {
+                // Used again while its file is being written: keep it resident
+                session = stripe.spilling.remove(id);
+                if (session != null) makeResident(stripe, session);
+            }
+            if (session != null) session.pins++;
+            return session;
+        }
+    }
+
+    private void unpin(GameSession session) {
+        Stripe stripe = stripeFor(session.getId());
+        long size = session.estimateMemoryBytes();
+        synchronized (stripe) {
+            session.pins--;
+            // A flood may have grown the session; keep the accounting current
+            Long previous = stripe.residentSize.get(session.getId());
+            if (previous != null && previous != size) {
+                stripe.residentSize.put(session.getId(), size);
+                addResidentBytes(size - previous);
+            }
+        }
+    }
+
+    /** Links a session into the stripe's resident map. Called with the stripe lock held. */
+    private void makeResident(Stripe stripe, GameSession session) {
+        long size = session.estimateMemoryBytes();
+        stripe.resident.put(session.getId(), session);
+        stripe.residentSize.put(session.getId(), size);
+        addResidentBytes(size);
+    }
+
+    private void addResidentBytes(long delta) {
+        if (residentBytes.addAndGet(delta) > budgetBytes && spillScheduled.compareAndSet(false, true)) {
+            spillExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean reachedTarget = false;
+                    try {
+                        reachedTarget = spillUntilUnderBudget();
+                    } finally {
+                        spillScheduled.set(false);
+                    }
+                    // Sessions added after the last check found a spill still scheduled
+                    if (reachedTarget && residentBytes.get() > budgetBytes) addResidentBytes(0);
+                }
+            });
+        }
+    }
+
+    // ------------------ SPILLING ------------------
+
+    /**
+     * Spills the least recently used idle session of each stripe in turn,
+     * until resident memory is under the low watermark.
+     * @return false if it stopped early because every resident session was in use.
+     */
+    private boolean spillUntilUnderBudget() {
+        long target = (long) (budgetBytes * LOW_WATERMARK);
+        int spilled = 0;
+        boolean progress = true;
+        while (residentBytes.get() > target && progress) {
+            progress = false;
+            for (Stripe stripe : stripes) {
+                if (residentBytes.get() <= target) break;
+                if (spillOne(stripe)) {
+                    spilled++;
+                    progress = true;
+                }
+            }
+        }
+        Log.d(TAG, "Spilled " + spilled + " sessions, resident " + residentBytes.get() + " bytes");
+        return progress;
+    }
+
+    private boolean spillOne(Stripe stripe) {
+        GameSession victim = null;
+        synchronized (stripe) {
+            Iterator<GameSession> it = stripe.resident.values().iterator();
+            while (it.hasNext()) {
+                GameSession session = it.next();
+                if (session.pins == 0) {
+                    victim = session;
+                    it.remove();
+                    break;
+                }
+            }
+            if (victim == null) return false;
+            addResidentBytes(-stripe.residentSize.remove(victim.getId()));
+            stripe.spilling.put(victim.getId(), victim);
+        }
+
+        File file = fileFor(victim.getId());
+        boolean written = false;
+        try {
+            write(victim, file);
+            written = true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to spill session " + victim.getId(), e);
+        }
+
+        synchronized (stripe) {
+            if (stripe.spilling.remove(victim.getId()) == null) {
+                // Used (or removed) meanwhile: the resident copy wins
+                file.delete();
+                return true;
+            }
+            if (written) {
+                spilledCount.incrementAndGet();
+            } else {
+                file.delete();
+                makeResident(stripe, victim); // Keep it rather than lose it
+            }
+        }
+        return written;
+    }
+
+    private File fileFor(long id) {
+        // Sharded into subdirectories so no single directory gets millions of entries
+        File dir = new File(spillDir, Integer.toHexString((int) (id & 0xFF)));
+        return new File(dir, id + ".bin");
+    }
+
+    private static void write(GameSession session, File file) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(new FileOutputStream(file))))) {
+            session.writeTo(out);
+        }
+    }
+
+    private GameSession restore(long id) {
+        File file = fileFor(id);
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new FileInputStream(file))))) {
+            return GameSession.readFrom(in);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to restore session " + id, e);
+            return null;
+        }
+    }
+
+    /** Waits until no spill is scheduled or running. For tests. */
+    void awaitSpills() throws InterruptedException, ExecutionException {
+        do {
+            spillExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // The executor is single-threaded: earlier spills are done once this runs
+                }
+            }).get();
+        } while (spillScheduled.get());
+    }
+
+    /** Stops the spill thread. Spilled files are left in place. */
+    public void shutdown() {
+        spillExecutor.shutdown();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.minesweeper;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * GameTimer
+ * ---------
+ * Measures the active playing time of a game.
+ *
+ * Time is taken from the monotonic {@link System#nanoTime()} clock and kept
+ * as the sum of the intervals during which the timer was running, so it
+ * doesn't drift under load and pausing / resuming never loses a partial
+ * second. The elapsed time is available with millisecond resolution.
+ *
+ * A display callback fires only when the shown whole-second value changes,
+ * scheduled for the exact next second boundary. Nothing is scheduled while
+ * the timer is paused or stopped.
+ */
+public class GameTimer {
+
+    private static final String TAG = "GameTimer";
+
+    /** Receives the elapsed whole seconds whenever that value changes. */
+    public interface OnSecondChangedListener {
+        void onSecondChanged(int seconds);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private OnSecondChangedListener listener;
+
+    private long accumulatedNanos = 0;   // Time from intervals that already ended
+    private long runningSinceNanos = -1; // Start of the current interval, -1 if not running
+    private int shownSeconds = -1;
+
+    /** Single reusable callback for display updates */
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            if (!isRunning()) return;
+            long elapsedMillis = getElapsedMillis();
+            publish(elapsedMillis);
+            handler.postDelayed(this, 1000 - elapsedMillis % 1000);
+        }
+    };
+
+    public GameTimer(OnSecondChangedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replaces the display listener (e.g. after the screen was recreated)
+     * and immediately reports the current value to it. Null detaches it.
+     */
+    public void setListener(OnSecondChangedListener listener) {
+        this.listener = listener;
+        shownSeconds = -1;
+        publish(getElapsedMillis());
+    }
+
+    /** Resets the timer to zero and starts it. */
+    public void start() {
+        handler.removeCallbacks(tick);
+        accumulatedNanos = 0;
+        runningSinceNanos = -1;
+        shownSeconds = -1;
+        publish(0);
+        resume();
+        Log.d(TAG, "Timer started.");
+    }
+
+    /** Continues counting after {@link #pause()}. Does nothing if already running. */
+    public void resume() {
+        if (isRunning()) return;
+        runningSinceNanos = System.nanoTime();
+        handler.postDelayed(tick, 1000 - getElapsedMillis() % 1000);
+    }
+
+    /** Stops counting, keeping the elapsed time. Does nothing if not running. */
+    public void pause() {
+        if (!isRunning()) return;
+        accumulatedNanos += System.nanoTime() - runningSinceNanos;
+        runningSinceNanos = -1;
+        handler.removeCallbacks(tick);
+    }
+
+    /** Stops counting for good (end of game); the elapsed time stays readable. */
+    public void stop() {
+        pause();
+        publish(getElapsedMillis());
+        Log.d(TAG, "Timer stopped at " + getElapsedMillis() + " ms.");
+    }
+
+    public boolean isRunning() {
+        return runningSinceNanos >= 0;
+    }
+
+    /** Total active time in milliseconds. */
+    public long getElapsedMillis() {
+        long nanos = accumulatedNanos;
+        if (isRunning()) nanos += System.nanoTime() - runningSinceNanos;
+        return nanos / 1_000_000;
+    }
+
+    private void publish(long elapsedMillis) {
+        int seconds = (int) (elapsedMillis / 1000);
+        if (seconds != shownSeconds && listener != null) {
+            shownSeconds = seconds;
+            listener.onSecondChanged(seconds);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.minesweeper;
+
+import androidx.lifecycle.ViewModel;
+
+import java.util.Random;
+
+/**
+ * GameViewModel
+ * -------------
+ * Holds the state of the game shown by {@link GameActivity} across
+ * configuration changes (rotation, theme or locale change, window resize).
+ *
+ * The engine and the timer live here, so a recreated activity only
+ * rebuilds its views and repaints them from the existing game; nothing
+ * is generated again and the timer keeps counting. Decoded animation
+ * frames are already shared through {@link SpriteAnimator}'s cache.
+ */
+public class GameViewModel extends ViewModel {
+
+    // Engine and timer, created by the first activity instance
+    MinesweeperGame game;
+    GameTimer gameTimer;
+    final Random seedSource = new Random();
+
+    // Screen state, copied back from the activity when it is destroyed
+    int flagsLeft;
+    boolean isPaused;
+    boolean gameOver;
+    boolean boardRevealed;
+    boolean flagMode;
+    String winMessage;
+
+    /** Whether a game has been set up (false for a brand-new screen). */
+    boolean hasGame() {
+        return game != null;
+    }
+
+    @Override
+    protected void onCleared() {
+        // The screen is gone for good: no more display callbacks
+        if (gameTimer != null) {
+            gameTimer.pause();
+            gameTimer.setListener(null);
+        }
+    }
+}
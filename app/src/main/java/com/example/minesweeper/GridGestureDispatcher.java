@@ -0,0 +1,146 @@
+package com.example.minesweeper;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+/**
+ * GridGestureDispatcher
+ * ---------------------
+ * One touch listener for the whole game grid. It maps touch coordinates to
+ * cells (the cells are plain, non-clickable views) and turns touches into
+ * three gestures:
+ *  - tap:        reported on finger up, without waiting for a double tap
+ *  - double tap: a second tap on the same cell within the double-tap timeout
+ *  - long press: finger held on one cell for the configured threshold
+ *
+ * What each gesture does (reveal, flag, chord) is decided by the
+ * {@link Listener}. No objects are allocated per touch.
+ */
+public class GridGestureDispatcher implements View.OnTouchListener {
+
+    /** Receives the gestures, with the cell they happened on. */
+    public interface Listener {
+        void onCellTap(int row, int col);
+
+        void onCellDoubleTap(int row, int col);
+
+        void onCellLongPress(int row, int col);
+    }
+
+    private final View grid;
+    private final int rows, cols;
+    private final Listener listener;
+    private final int touchSlop;
+    private final long doubleTapTimeoutMs;
+
+    private int cellSize;
+    private long longPressTimeoutMs;
+
+    // Current touch
+    private int downRow = -1, downCol = -1;
+    private float downX, downY;
+    private boolean longPressFired;
+
+    // Previous tap, for double-tap detection
+    private int lastTapRow = -1, lastTapCol = -1;
+    private long lastTapTime;
+
+    private final Runnable longPressCheck = new Runnable() {
+        @Override
+        public void run() {
+            if (downRow < 0) return;
+            longPressFired = true;
+            lastTapRow = -1; // A long press never starts a double tap
+            listener.onCellLongPress(downRow, downCol);
+        }
+    };
+
+    /**
+     * @param grid     The view holding the cells; touches are in its coordinates.
+     * @param cellSize Edge length of a cell, in pixels.
+     */
+    public GridGestureDispatcher(View grid, int rows, int cols, int cellSize, Listener listener) {
+        this.grid = grid;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellSize = cellSize;
+        this.listener = listener;
+        this.touchSlop = ViewConfiguration.get(grid.getContext()).getScaledTouchSlop();
+        this.doubleTapTimeoutMs = ViewConfiguration.getDoubleTapTimeout();
+        this.longPressTimeoutMs = ViewConfiguration.getLongPressTimeout();
+    }
+
+    /** Sets how long a finger must stay down for a long press. */
+    public void setLongPressTimeout(long millis) {
+        this.longPressTimeoutMs = millis;
+    }
+
+    public void setCellSize(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                float x = event.getX() - grid.getPaddingLeft();
+                float y = event.getY() - grid.getPaddingTop();
+                int col = x < 0 ? -1 : (int) (x / cellSize);
+                int row = y < 0 ? -1 : (int) (y / cellSize);
+                if (row < 0 || row >= rows || col < 0 || col >= cols) {
+                    downRow = -1;
+                    return false;
+                }
+                downRow = row;
+                downCol = col;
+                downX = event.getX();
+                downY = event.getY();
+                longPressFired = false;
+                grid.postDelayed(longPressCheck, longPressTimeoutMs);
+                return true;
+            }
+
+            case MotionEvent.ACTION_MOVE:
+                if (downRow >= 0 && (Math.abs(event.getX() - downX) > touchSlop
+                        || Math.abs(event.getY() - downY) > touchSlop)) {
+                    cancel();
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP: {
+                grid.removeCallbacks(longPressCheck);
+                if (downRow < 0 || longPressFired) {
+                    downRow = -1;
+                    return true;
+                }
+                int row = downRow, col = downCol;
+                downRow = -1;
+
+                long now = event.getEventTime();
+                if (row == lastTapRow && col == lastTapCol && now - lastTapTime <= doubleTapTimeoutMs) {
+                    lastTapRow = -1;
+                    listener.onCellDoubleTap(row, col);
+                } else {
+                    lastTapRow = row;
+                    lastTapCol = col;
+                    lastTapTime = now;
+                    listener.onCellTap(row, col);
+                }
+                return true;
+            }
+
+            case MotionEvent.ACTION_CANCEL:
+                cancel();
+                return true;
+
+            default:
+                return true;
+        }
+    }
+
+    private void cancel() {
+        grid.removeCallbacks(longPressCheck);
+        downRow = -1;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.minesweeper;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LogHistogram
+ * ------------
+ * Fixed-size histogram of non-negative values (e.g. latencies in
+ * nanoseconds) with logarithmic buckets: every power of two is split into
+ * {@link #SUB_BUCKETS} equal buckets, so any reported percentile is within
+ * 12.5% of the true value. Values 0..7 get exact buckets.
+ *
+ * {@link #record(long)} is thread-safe, lock-free and allocation-free
+ * (a few atomic increments).
+ */
+public class LogHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Largest tracked power of two; larger values land in the last bucket (2^40 ns ≈ 18 min) */
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param name Name shown in reports.
+     * @param unit Unit of the recorded values ("ns" values are reported in µs).
+     */
+    public LogHistogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /** Records one value; negative values count as 0. */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /** Records the time since {@code startNanos} (a {@link System#nanoTime()} value). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Largest value that falls into a bucket. */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+
+    /**
+     * Value at a percentile (0-100): the upper bound of the bucket holding it,
+     * capped by the recorded maximum. 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        if (rank < 1) rank = 1;
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(bucketUpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Clears all recorded values. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private boolean isNanos() {
+        return unit.equals("ns");
+    }
+
+    private String format(double value) {
+        return isNanos()
+                ? String.format(Locale.US, "%.1f", value / 1000.0)
+                : String.format(Locale.US, "%.0f", value);
+    }
+
+    /** One-line summary, e.g. "reveal: n=42 p50=12.0 p99=80.5 max=95.1 µs". */
+    @Override
+    public String toString() {
+        return name + ": n=" + getCount()
+                + " p50=" + format(getPercentile(50))
+                + " p99=" + format(getPercentile(99))
+                + " max=" + format(getMax())
+                + " " + (isNanos() ? "µs" : unit);
+    }
+
+    /** Summary as JSON (values in the recorded unit). */
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("unit", unit);
+        json.put("count", getCount());
+        json.put("mean", getMean());
+        json.put("p50", getPercentile(50));
+        json.put("p90", getPercentile(90));
+        json.put("p99", getPercentile(99));
+        json.put("max", getMax());
+        return json;
+    }
+}
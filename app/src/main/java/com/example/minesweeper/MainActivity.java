@@ -30,8 +30,10 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        StartupTrace trace = StartupTrace.begin(TAG);
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        trace.step("setContentView");
         Log.d(TAG, "onCreate: MainActivity created");
 
         // Bind UI components
@@ -77,6 +79,15 @@ public class MainActivity extends AppCompatActivity {
                 startActivity(intent);
             }
         });
+
+        // After the menu is drawn, open the database and prefetch win messages
+        // in the background so they are ready before the first game ends
+        trace.endOnFirstDraw(getWindow().getDecorView(), new Runnable() {
+            @Override
+            public void run() {
+                ((MinesweeperApp) getApplication()).warmUp();
+            }
+        });
     }
 
     /**
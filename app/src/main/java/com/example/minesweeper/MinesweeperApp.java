@@ -0,0 +1,86 @@
+package com.example.minesweeper;
+
+import android.app.Application;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * MinesweeperApp
+ * --------------
+ * Application class. Owns app-wide lazy initialization:
+ *
+ *  - The Room database is opened on a background thread the first time
+ *    it is requested; callers get a {@link Future} instead of blocking the
+ *    UI thread while the file is opened and migrated.
+ *  - {@link #warmUp()} is called by the screens after their first frame is
+ *    drawn. It starts opening the database, replaying results left in the
+ *    score write queue's log, and prefetching the win messages (which
+ *    builds the Gemini client) so none of it competes with the first
+ *    frame, but all of it is ready by the end of a game.
+ */
+public class MinesweeperApp extends Application {
+
+    private static final String TAG = "MinesweeperApp";
+
+    private FutureTask<ScoreDatabase> databaseFuture;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        Log.d(TAG, "onCreate: application created "
+                + (SystemClock.uptimeMillis() - Process.getStartUptimeMillis()) + " ms after process start");
+    }
+
+    /**
+     * Returns a future for the score database, starting to open it in the
+     * background on the first call.
+     */
+    public synchronized Future<ScoreDatabase> getDatabase() {
+        if (databaseFuture == null) {
+            FutureTask<ScoreDatabase> task = new FutureTask<>(new Callable<ScoreDatabase>() {
+                @Override
+                public ScoreDatabase call() {
+                    long start = SystemClock.uptimeMillis();
+                    ScoreDatabase database = ScoreDatabase.getInstance(MinesweeperApp.this);
+                    Log.d(TAG, "Database opened in background in "
+                            + (SystemClock.uptimeMillis() - start) + " ms");
+                    return database;
+                }
+            });
+            databaseFuture = task;
+            AppExecutors.io().execute(task);
+        }
+        return databaseFuture;
+    }
+
+    /**
+     * Returns the score database, waiting until it is open. If the background
+     * open has not started yet it runs on the calling thread, so a caller on
+     * the io pool never waits for a task queued behind itself.
+     * Must not be called on the UI thread.
+     */
+    public ScoreDatabase awaitDatabase() throws InterruptedException, ExecutionException {
+        FutureTask<ScoreDatabase> task;
+        synchronized (this) {
+            getDatabase();
+            task = databaseFuture;
+        }
+        task.run(); // Does nothing if the task already started
+        return task.get();
+    }
+
+    /**
+     * Starts the deferred background initialization. Safe to call more than once.
+     */
+    public void warmUp() {
+        getDatabase();
+        ScoreWriteQueue.getInstance(this).flush(); // Replays a log left by a previous process
+        CongratsMessageProvider.getInstance().prefetch();
+    }
+}
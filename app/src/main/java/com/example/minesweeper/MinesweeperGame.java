@@ -1,6 +1,11 @@
 package com.example.minesweeper;
 
 import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -10,95 +15,170 @@ import java.util.Random;
  *  - Generating the board
  *  - Placing bombs
  *  - Calculating neighbor counts
- *  - Revealing and flagging cells
+ *  - Revealing, chording and flagging cells
  *  - Checking win/loss conditions
+ *  - Measuring the board's difficulty (3BV) and the player's clicks
+ *
+ *  The board is stored packed, one byte per cell in row-major order
+ *  (bomb / revealed / flagged bits plus the neighbor count), so boards with
+ *  millions of cells stay compact. Generation is done by {@link BoardGenerator},
+ *  in parallel for large boards. Which cells are neighbors is defined by the
+ *  {@link BoardTopology} (square, torus or hex), through its shared adjacency table.
+ *  Large square boards also keep bitplanes ({@link BitBoard}) so floods run
+ *  64 cells per word operation.
  *
- *  This class is independent of the UI and interacts with {@link Cell} objects.
+ *  This class is independent of the UI. It has a single writer: all moves
+ *  must come from one thread (or be serialized, see {@link GameSession}).
+ *  Other threads read the board through {@link #getSnapshot()}.
  */
 public class MinesweeperGame {
 
     private static final String TAG = "MinesweeperGame"; // For Logcat debugging
 
+    // Cell bit layout: low 4 bits hold the neighbor bomb count
+    static final byte COUNT_MASK = 0x0F;
+    static final byte BOMB = 0x10;
+    static final byte REVEALED = 0x20;
+    static final byte FLAGGED = 0x40;
+
+    // Salt of the position hash keys (any fixed value; changing it changes every hash)
+    private static final long POSITION_SALT = 0x5A0B1257C0DEF00DL;
+
+    // Version byte of writeTo(). Version 1 had no version byte (its first byte,
+    // the top byte of the row count, is always 0) and no click count.
+    private static final int FORMAT_VERSION = 2;
+
     private int rows, cols, bombs;
-    private Cell[][] board;
+    private byte[] board;
+    private final BoardTopology.Adjacency adjacency;
+    private final BitBoard bits; // Flood bitplanes; null unless the board is large and square
     private boolean gameOver;
     private int revealedCells;
     private boolean firstMove = true; // ensures first click is safe
+    private long regenerateSeed; // Seed for the board rebuilt after an unsafe first click
+    private int effectiveClicks; // Reveals, chords and flag changes that changed the board
+    private int bbbv = -1;       // 3BV of the current board; -1 until computed
+    private long positionHash;   // Zobrist-style hash of the visible state, see getPositionHash()
+
+    // Cells revealed by the current/last move, in reveal (BFS) order. Doubles
+    // as the flood fill queue. Allocated on the first move.
+    private int[] moveCells;
+    private int moveCellCount;
+
+    // Published immutable view for other threads; null until enableSnapshots()
+    private volatile BoardSnapshot snapshot;
+    private long[] dirtyChunks;    // One bit per snapshot chunk changed since the last publish
+    private boolean boardReplaced; // The whole board changed (first-click regeneration)
+
+    // Event listeners (copied on change, so dispatching never allocates)
+    private GameListener[] listeners = new GameListener[0];
+
+    // Per-move bookkeeping for the events: flood ranges in moveCells, the
+    // bomb that ended the game, and whether the board was regenerated
+    private final int[] floodStarts = new int[8]; // At most one flood per chorded neighbor
+    private final int[] floodEnds = new int[8];
+    private int floodCount;
+    private int lostIndex = -1;
+    private boolean regeneratedInMove;
+    private int[] clearedFlags = new int[0]; // Flags removed by the regeneration, reported as unflags
+    private int clearedFlagCount;
 
     /** Constructor initializes the board and generates bombs + neighbors */
     public MinesweeperGame(int rows, int cols, int bombs) {
+        this(rows, cols, bombs, new Random().nextLong());
+    }
+
+    /**
+     * Creates a board from a seed; the same seed always produces the same
+     * game (including the regenerated board after an unsafe first click).
+     */
+    public MinesweeperGame(int rows, int cols, int bombs, long seed) {
+        this(rows, cols, bombs, seed, BoardTopology.SQUARE);
+    }
+
+    /** Creates a seeded board with the given neighbor topology. */
+    public MinesweeperGame(int rows, int cols, int bombs, long seed, BoardTopology topology) {
+        this(rows, cols, bombs, seed, topology, usesBitBoard(topology, rows, cols));
+    }
+
+    /**
+     * Creates a seeded board, choosing the flood implementation instead of
+     * going by the board size (tests compare both on the same board).
+     * Bitplanes need the SQUARE topology.
+     */
+    MinesweeperGame(int rows, int cols, int bombs, long seed, BoardTopology topology, boolean bitplanes) {
+        if (bitplanes && topology != BoardTopology.SQUARE) {
+            throw new IllegalArgumentException("Bitplanes need the SQUARE topology, not " + topology);
+        }
         this.rows = rows;
         this.cols = cols;
         this.bombs = bombs;
-        this.board = new Cell[rows][cols];
+        this.board = new byte[rows * cols];
         this.gameOver = false;
         this.revealedCells = 0;
+        this.adjacency = topology.adjacency(rows, cols);
+        this.bits = bitplanes ? new BitBoard(rows, cols) : null;
+        this.positionHash = emptyPositionHash();
 
-        Log.d(TAG, "Initializing board: " + rows + "x" + cols + " with " + bombs + " bombs");
-        initBoard();
-        placeBombs();
-        calculateNeighbors();
+        Log.d(TAG, "Initializing " + topology + " board: " + rows + "x" + cols + " with " + bombs + " bombs");
+        placeBoard(seed);
+        Log.d(TAG, "Board generated.");
     }
 
-    /** Creates an empty board of unrevealed, non-bomb cells */
-    private void initBoard() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                board[row][col] = new Cell();
-            }
-        }
-        Log.d(TAG, "Board initialized with empty cells.");
+    /** Generates a board from a seed into the (all-zero) board array. */
+    private void placeBoard(long seed) {
+        regenerateSeed = BoardGenerator.mix(seed, 2);
+        BoardGenerator.generate(board, adjacency, bombs, BoardGenerator.mix(seed, 1), -1);
+        bbbv = -1;
+        if (bits != null) bits.rebuild(board);
     }
 
-    /** Randomly places bombs on the board */
-    private void placeBombs() {
-        Random rand = new Random();
-        int placed = 0;
-
-        while (placed < bombs) {
-            int r = rand.nextInt(rows);
-            int c = rand.nextInt(cols);
+    private static boolean usesBitBoard(BoardTopology topology, int rows, int cols) {
+        return topology == BoardTopology.SQUARE && (long) rows * cols >= BitBoard.THRESHOLD;
+    }
 
-            if (!board[r][c].isBomb()) {
-                board[r][c].setBomb(true);
-                placed++;
-            }
+    /**
+     * Starts a new game of the same size in place, reusing the board and
+     * queue arrays: clears every cell in one pass and places a new board.
+     */
+    public void reset(long seed) {
+        Arrays.fill(board, (byte) 0);
+        gameOver = false;
+        firstMove = true;
+        revealedCells = 0;
+        effectiveClicks = 0;
+        positionHash = emptyPositionHash();
+        moveCellCount = 0;
+        lostIndex = -1;
+        placeBoard(seed);
+        if (snapshot != null) publishAll();
+        for (GameListener listener : listeners) {
+            listener.onBoardRegenerated();
         }
-        Log.d(TAG, "Bombs placed: " + placed);
+        Log.d(TAG, "Board reset.");
     }
 
-    /** Counts bombs around each cell and stores it */
-    private void calculateNeighbors() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Cell current = board[row][col];
-
-                // Skip bombs
-                if (current.isBomb()) continue;
-
-                int neighborBombs = 0;
-
-                // Check all 8 surrounding cells
-                for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
-                    for (int colOffset = -1; colOffset <= 1; colOffset++) {
-                        if (rowOffset == 0 && colOffset == 0) continue;
-
-                        int neighborRow = row + rowOffset;
-                        int neighborCol = col + colOffset;
-
-                        boolean insideBoard =
-                                neighborRow >= 0 && neighborRow < rows &&
-                                        neighborCol >= 0 && neighborCol < cols;
+    /** Restores a game written by {@link #writeTo(DataOutputStream)}. */
+    private MinesweeperGame(int rows, int cols, int bombs, BoardTopology topology, byte[] board,
+                            boolean firstMove, boolean gameOver, int revealedCells, int effectiveClicks,
+                            long regenerateSeed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.bombs = bombs;
+        this.adjacency = topology.adjacency(rows, cols);
+        this.bits = usesBitBoard(topology, rows, cols) ? new BitBoard(rows, cols) : null;
+        this.board = board;
+        this.firstMove = firstMove;
+        this.gameOver = gameOver;
+        this.revealedCells = revealedCells;
+        this.effectiveClicks = effectiveClicks;
+        this.regenerateSeed = regenerateSeed;
+        this.positionHash = computePositionHash();
+        if (bits != null) bits.rebuild(board);
+    }
 
-                        if (insideBoard && board[neighborRow][neighborCol].isBomb()) {
-                            neighborBombs++;
-                        }
-                    }
-                }
-                current.setNeighborBombs(neighborBombs);
-            }
-        }
-        Log.d(TAG, "Neighbor bomb counts calculated.");
+    private int index(int row, int col) {
+        return row * cols + col;
     }
 
     /**
@@ -106,107 +186,228 @@ public class MinesweeperGame {
      * @return true if the cell is safe; false if a bomb was hit.
      */
     public boolean revealCell(int row, int col) {
-        Log.d(TAG, "Revealing cell (" + row + ", " + col + ")");
+        long start = System.nanoTime();
+        beginMove();
+        boolean safe = reveal(row, col);
+        if (moveCellCount > 0) effectiveClicks++;
+        EngineMetrics.recordMove(start, moveCellCount);
+        publishMove();
+        fireMoveEvents();
+        return safe;
+    }
+
+    private void beginMove() {
+        moveCellCount = 0;
+        floodCount = 0;
+        regeneratedInMove = false;
+        clearedFlagCount = 0;
+    }
+
+    private boolean reveal(int row, int col) {
+        // Runs for every move (and every chorded neighbor): no string building in release builds
+        if (BuildConfig.DEBUG) Log.d(TAG, "Revealing cell (" + row + ", " + col + ")");
+        int index = index(row, col);
 
         // Ignore already revealed or flagged cells
-        if (board[row][col].isRevealed() || board[row][col].isFlagged()) return true;
+        if ((board[index] & (REVEALED | FLAGGED)) != 0) return true;
 
         // Handle first move — regenerate if not safe
         if (firstMove) {
             firstMove = false;
-            while (board[row][col].isBomb() || board[row][col].getNeighborBombs() != 0) {
-                Log.d(TAG, "First click not safe — regenerating board.");
-                regenerateBoardWithout(row, col);
+            if ((board[index] & (BOMB | COUNT_MASK)) != 0) {
+                makeFirstClickSafe(row, col);
             }
         }
 
-        board[row][col].setRevealed(true);
+        board[index] |= REVEALED;
         revealedCells++;
+        positionHash ^= revealKey(index);
+        if (bits != null) bits.update(board, index);
+        int position = moveCellCount;
+        if (moveCells == null) moveCells = new int[rows * cols];
+        moveCells[moveCellCount++] = index;
 
         // If bomb — game over
-        if (board[row][col].isBomb()) {
+        if ((board[index] & BOMB) != 0) {
             gameOver = true;
+            lostIndex = index;
             Log.d(TAG, "💣 Bomb hit! Game Over.");
             return false;
         }
 
-        // If empty cell — reveal neighbors recursively
-        if (board[row][col].getNeighborBombs() == 0) {
-            floodReveal(row, col);
+        // If empty cell — reveal the connected empty area
+        if ((board[index] & COUNT_MASK) == 0) {
+            long floodStart = System.nanoTime();
+            floodReveal(position);
+            EngineMetrics.FLOOD.recordSince(floodStart);
+            floodStarts[floodCount] = position;
+            floodEnds[floodCount++] = moveCellCount;
         }
 
         return true;
     }
 
     /**
-     * Recursive flood-fill for revealing connected empty cells
+     * Breadth-first flood fill for revealing connected empty cells
      * (reveals surrounding safe areas when a zero-cell is clicked).
+     * Iterative, so very large empty areas can't overflow the stack.
+     *
+     * Every revealed cell is appended to {@link #moveCells}; only empty
+     * ones are expanded. {@code head} is the position of the start cell.
+     * Boards with bitplanes flood through {@link BitBoard} instead.
      */
-    private void floodReveal(int row, int col) {
-        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
-            for (int colOffset = -1; colOffset <= 1; colOffset++) {
-                if (rowOffset == 0 && colOffset == 0) continue;
-
-                int neighborRow = row + rowOffset;
-                int neighborCol = col + colOffset;
+    private void floodReveal(int head) {
+        if (bits != null) {
+            int tail = bits.flood(board, moveCells[head], moveCells, moveCellCount);
+            for (int i = moveCellCount; i < tail; i++) {
+                positionHash ^= revealKey(moveCells[i]);
+            }
+            revealedCells += tail - moveCellCount;
+            moveCellCount = tail;
+            return;
+        }
 
-                boolean insideBoard =
-                        neighborRow >= 0 && neighborRow < rows &&
-                                neighborCol >= 0 && neighborCol < cols;
+        int tail = moveCellCount;
+        int[] queue = moveCells;
+        int[] classStart = adjacency.classStart;
+        int[] offsets = adjacency.offsets;
 
-                if (!insideBoard) continue;
+        while (head < tail) {
+            int current = queue[head++];
+            if ((board[current] & COUNT_MASK) != 0) continue; // A border number: revealed, not expanded
+            int cls = adjacency.classOfIndex(current);
 
-                Cell neighbor = board[neighborRow][neighborCol];
+            for (int k = classStart[cls]; k < classStart[cls + 1]; k++) {
+                int neighbor = current + offsets[k];
 
                 // Skip revealed, flagged, or bomb cells
-                if (neighbor.isRevealed() || neighbor.isFlagged() || neighbor.isBomb()) continue;
+                if ((board[neighbor] & (REVEALED | FLAGGED | BOMB)) != 0) continue;
 
-                neighbor.setRevealed(true);
+                board[neighbor] |= REVEALED;
                 revealedCells++;
-
-                // Continue revealing if also empty
-                if (neighbor.getNeighborBombs() == 0) {
-                    floodReveal(neighborRow, neighborCol);
-                }
+                positionHash ^= revealKey(neighbor);
+                queue[tail++] = neighbor;
             }
         }
+        moveCellCount = tail;
     }
 
     /**
-     * Rebuilds the board so that the clicked cell and its 8 neighbors are guaranteed safe.
+     * Chording: on a revealed number whose neighbors already carry that many
+     * flags, reveals all its other hidden neighbors at once.
+     * @return false if one of them was a bomb (a misplaced flag), true otherwise.
      */
-    private void regenerateBoardWithout(int safeRow, int safeCol) {
-        Log.d(TAG, "Regenerating board excluding area around (" + safeRow + ", " + safeCol + ")");
+    public boolean chordCell(int row, int col) {
+        int index = index(row, col);
+        if (gameOver || (board[index] & (REVEALED | BOMB)) != REVEALED) return true;
+
+        int cls = adjacency.classOf(row, col);
+        int start = adjacency.classStart[cls], end = adjacency.classStart[cls + 1];
+        int flags = 0;
+        for (int k = start; k < end; k++) {
+            if ((board[index + adjacency.offsets[k]] & FLAGGED) != 0) flags++;
+        }
+        if (flags != (board[index] & COUNT_MASK)) return true;
+
+        if (BuildConfig.DEBUG) Log.d(TAG, "Chording cell (" + row + ", " + col + ")");
+        long startNanos = System.nanoTime();
+        beginMove();
+        boolean safe = true;
+        for (int k = start; k < end; k++) {
+            int neighbor = index + adjacency.offsets[k];
+            if (!reveal(neighbor / cols, neighbor % cols)) safe = false;
+        }
+        if (moveCellCount > 0) effectiveClicks++;
+        EngineMetrics.recordMove(startNanos, moveCellCount);
+        publishMove();
+        fireMoveEvents();
+        return safe;
+    }
 
-        // Clear board state
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                board[r][c].setBomb(false);
-                board[r][c].setNeighborBombs(0);
-                board[r][c].setRevealed(false);
-                board[r][c].setFlagged(false);
-            }
+    /**
+     * Makes an unsafe first click safe. Normally the board is rebuilt with
+     * the clicked cell and its neighbors bomb-free. A board too dense for
+     * that keeps its layout: only a bomb under the clicked cell is moved
+     * away, and a number is simply revealed. Nothing is changed unless the
+     * change can be completed.
+     */
+    private void makeFirstClickSafe(int row, int col) {
+        int index = index(row, col);
+        int cls = adjacency.classOfIndex(index);
+        int safeArea = 1 + adjacency.classStart[cls + 1] - adjacency.classStart[cls];
+        if (bombs <= board.length - safeArea) {
+            Log.d(TAG, "First click not safe — regenerating board.");
+            EngineMetrics.BOARD_REGENERATIONS.incrementAndGet();
+            regenerateBoardWithout(row, col);
+        } else if ((board[index] & BOMB) != 0 && bombs < board.length) {
+            Log.d(TAG, "First click on a bomb of a dense board — moving it.");
+            moveBombFrom(index);
         }
+    }
 
-        // Place bombs again — avoiding the safe cell and its neighbors
-        Random rand = new Random();
-        int placed = 0;
+    /**
+     * Moves the bomb at {@code index} to the first bomb-free cell in
+     * row-major order and updates the neighbor counts around both cells.
+     * Only hidden state changes (nothing is revealed before the first
+     * click, and flags stay), so no board event is fired.
+     */
+    private void moveBombFrom(int index) {
+        int target = 0;
+        while ((board[target] & BOMB) != 0) target++;
+
+        board[index] &= ~BOMB;
+        board[target] = (byte) ((board[target] & FLAGGED) | BOMB); // Bombs carry no count
+        recount(index);
+        int cls = adjacency.classOfIndex(index);
+        for (int k = adjacency.classStart[cls]; k < adjacency.classStart[cls + 1]; k++) {
+            recount(index + adjacency.offsets[k]);
+        }
+        cls = adjacency.classOfIndex(target);
+        for (int k = adjacency.classStart[cls]; k < adjacency.classStart[cls + 1]; k++) {
+            recount(target + adjacency.offsets[k]);
+        }
+        boardReplaced = true; // Counts changed in several chunks
+        bbbv = -1;
+        if (bits != null) bits.rebuild(board);
+    }
 
-        while (placed < bombs) {
-            int r = rand.nextInt(rows);
-            int c = rand.nextInt(cols);
+    /** Recomputes the neighbor count of a bomb-free cell. */
+    private void recount(int index) {
+        if ((board[index] & BOMB) != 0) return;
+        int cls = adjacency.classOfIndex(index);
+        int count = 0;
+        for (int k = adjacency.classStart[cls]; k < adjacency.classStart[cls + 1]; k++) {
+            if ((board[index + adjacency.offsets[k]] & BOMB) != 0) count++;
+        }
+        board[index] = (byte) ((board[index] & ~COUNT_MASK) | count);
+    }
 
-            boolean nearSafeCell = Math.abs(r - safeRow) <= 1 && Math.abs(c - safeCol) <= 1;
-            if (nearSafeCell) continue;
+    /**
+     * Rebuilds the board so that the clicked cell and its neighbors are guaranteed safe.
+     * The caller checks that the bombs fit outside that area.
+     */
+    private void regenerateBoardWithout(int safeRow, int safeCol) {
+        Log.d(TAG, "Regenerating board excluding area around (" + safeRow + ", " + safeCol + ")");
 
-            if (!board[r][c].isBomb()) {
-                board[r][c].setBomb(true);
-                placed++;
+        // Remember the flags the clear removes, so listeners repaint only those
+        for (int i = 0; i < board.length; i++) {
+            if ((board[i] & FLAGGED) == 0) continue;
+            if (clearedFlagCount == clearedFlags.length) {
+                clearedFlags = Arrays.copyOf(clearedFlags, Math.max(8, 2 * clearedFlagCount));
             }
+            clearedFlags[clearedFlagCount++] = i;
         }
 
-        // Recalculate bomb counts
-        calculateNeighbors();
+        // Clear board state
+        Arrays.fill(board, (byte) 0);
+
+        // Place bombs again — avoiding the safe cell and its neighbors
+        BoardGenerator.generate(board, adjacency, bombs, regenerateSeed, index(safeRow, safeCol));
+        boardReplaced = true;
+        regeneratedInMove = true;
+        bbbv = -1;
+        positionHash = emptyPositionHash(); // Nothing is revealed yet, and the clear removed any flags
+        if (bits != null) bits.rebuild(board);
     }
 
     /**
@@ -222,9 +423,405 @@ public class MinesweeperGame {
         return win;
     }
 
-    /** Returns a reference to the cell object at (row, col). */
+    /**
+     * Cells (row-major indices) revealed by the last {@link #revealCell} or
+     * {@link #chordCell}, in breadth-first order from the tapped cell.
+     * The array is reused by the next move; only the first
+     * {@link #getChangedCellCount()} entries are valid.
+     */
+    public int[] getChangedCells() {
+        return moveCells;
+    }
+
+    public int getChangedCellCount() {
+        return moveCellCount;
+    }
+
+    /** Sets or clears the flag on a hidden cell. Revealed cells are ignored. */
+    public void setFlagged(int row, int col, boolean flagged) {
+        int index = index(row, col);
+        if ((board[index] & REVEALED) != 0) return;
+        if (((board[index] & FLAGGED) != 0) == flagged) return;
+        if (flagged) board[index] |= FLAGGED;
+        else board[index] &= ~FLAGGED;
+        effectiveClicks++;
+        positionHash ^= flagKey(index);
+        if (bits != null) bits.update(board, index);
+        if (snapshot != null) {
+            markDirty(index);
+            publishDirty();
+        }
+        for (GameListener listener : listeners) {
+            listener.onFlagChanged(row, col, flagged);
+        }
+    }
+
+    /** Reveals every cell (used to show the board after the game ends). */
+    public void revealAll() {
+        for (int i = 0; i < board.length; i++) {
+            if ((board[i] & REVEALED) != 0) continue;
+            board[i] |= REVEALED;
+            positionHash ^= revealKey(i);
+        }
+        if (bits != null) bits.rebuild(board);
+        if (snapshot != null) publishAll();
+    }
+
+    public boolean isBomb(int row, int col) {
+        return (board[index(row, col)] & BOMB) != 0;
+    }
+
+    public boolean isRevealed(int row, int col) {
+        return (board[index(row, col)] & REVEALED) != 0;
+    }
+
+    public boolean isFlagged(int row, int col) {
+        return (board[index(row, col)] & FLAGGED) != 0;
+    }
+
+    /** Number of bombs around a cell (0 for bombs themselves). */
+    public int getNeighborBombs(int row, int col) {
+        return board[index(row, col)] & COUNT_MASK;
+    }
+
+    /**
+     * Returns a snapshot of the cell at (row, col).
+     * Changing the returned object does not change the game; use
+     * {@link #setFlagged(int, int, boolean)} and {@link #revealCell(int, int)}.
+     */
     public Cell getCell(int row, int col) {
-        return board[row][col];
+        Cell cell = new Cell();
+        cell.setBomb(isBomb(row, col));
+        cell.setRevealed(isRevealed(row, col));
+        cell.setFlagged(isFlagged(row, col));
+        cell.setNeighborBombs(getNeighborBombs(row, col));
+        return cell;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public BoardTopology getTopology() {
+        return adjacency.getTopology();
+    }
+
+    // ------------------ EVENTS ------------------
+
+    /** Subscribes a listener (see {@link GameListener} for when events fire). */
+    public void addListener(GameListener listener) {
+        GameListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public void removeListener(GameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] updated = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /** Delivers the events of the move that just finished, in the order they happened. */
+    private void fireMoveEvents() {
+        GameListener[] targets = listeners;
+        if (targets.length == 0) return;
+
+        if (regeneratedInMove) {
+            for (GameListener listener : targets) listener.onBoardRegenerated();
+            for (int i = 0; i < clearedFlagCount; i++) {
+                int row = clearedFlags[i] / cols, col = clearedFlags[i] % cols;
+                for (GameListener listener : targets) listener.onFlagChanged(row, col, false);
+            }
+        }
+
+        int flood = 0;
+        for (int i = 0; i < moveCellCount; i++) {
+            int index = moveCells[i];
+            if ((board[index] & BOMB) == 0) {
+                int row = index / cols, col = index % cols, count = board[index] & COUNT_MASK;
+                for (GameListener listener : targets) listener.onCellRevealed(row, col, count);
+            }
+            if (flood < floodCount && i + 1 == floodEnds[flood]) {
+                // The flood's start cell is the first cell of its range
+                int start = moveCells[floodStarts[flood]];
+                int cells = floodEnds[flood] - floodStarts[flood];
+                for (GameListener listener : targets) {
+                    listener.onFloodCompleted(start / cols, start % cols, cells);
+                }
+                flood++;
+            }
+        }
+
+        if (gameOver && lostIndex >= 0) {
+            int row = lostIndex / cols, col = lostIndex % cols;
+            lostIndex = -1; // Reported once
+            for (GameListener listener : targets) listener.onGameLost(row, col);
+        } else if (moveCellCount > 0 && !gameOver && rows * cols - revealedCells == bombs) {
+            for (GameListener listener : targets) listener.onGameWon();
+        }
+    }
+
+    // ------------------ SNAPSHOTS ------------------
+
+    /**
+     * Starts publishing snapshots; call from the writer thread. From then on
+     * every move publishes a new {@link BoardSnapshot} that copies only the
+     * chunks the move changed.
+     */
+    public void enableSnapshots() {
+        if (snapshot != null) return;
+        dirtyChunks = new long[(BoardSnapshot.chunkCount(board.length) + 63) >>> 6];
+        publishAll();
+    }
+
+    /**
+     * Latest published snapshot, or null if snapshots are not enabled.
+     * Safe to call from any thread; never blocks the writer.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Publishes the cells changed by the last move. */
+    private void publishMove() {
+        if (snapshot == null) return;
+        if (boardReplaced) {
+            publishAll();
+            return;
+        }
+        if (moveCellCount == 0) return;
+        for (int i = 0; i < moveCellCount; i++) {
+            markDirty(moveCells[i]);
+        }
+        publishDirty();
+    }
+
+    private void markDirty(int index) {
+        int chunk = index >>> BoardSnapshot.CHUNK_SHIFT;
+        dirtyChunks[chunk >>> 6] |= 1L << chunk;
+    }
+
+    /** New snapshot sharing every clean chunk with the previous one. */
+    private void publishDirty() {
+        BoardSnapshot previous = snapshot;
+        byte[][] chunks = previous.chunks().clone();
+        for (int word = 0; word < dirtyChunks.length; word++) {
+            long bits = dirtyChunks[word];
+            while (bits != 0) {
+                int chunk = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                chunks[chunk] = copyChunk(chunk);
+            }
+            dirtyChunks[word] = 0;
+        }
+        snapshot = new BoardSnapshot(previous.getVersion() + 1, rows, cols, revealedCells, gameOver, chunks);
+    }
+
+    /** New snapshot with every chunk copied. */
+    private void publishAll() {
+        byte[][] chunks = new byte[BoardSnapshot.chunkCount(board.length)][];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            chunks[chunk] = copyChunk(chunk);
+        }
+        Arrays.fill(dirtyChunks, 0);
+        boardReplaced = false;
+        BoardSnapshot previous = snapshot;
+        long version = previous == null ? 0 : previous.getVersion() + 1;
+        snapshot = new BoardSnapshot(version, rows, cols, revealedCells, gameOver, chunks);
+    }
+
+    private byte[] copyChunk(int chunk) {
+        int from = chunk << BoardSnapshot.CHUNK_SHIFT;
+        return Arrays.copyOfRange(board, from, Math.min(board.length, from + BoardSnapshot.CHUNK_CELLS));
+    }
+
+    // ------------------ DIFFICULTY ------------------
+
+    /**
+     * The board's 3BV: the minimum number of clicks needed to clear it
+     * without chording. Each connected region of empty cells takes one click
+     * (which also opens its numbered border), and every numbered cell that
+     * borders no empty cell takes one click of its own.
+     *
+     * Computed once per board in a single O(cells) pass: union-find joins
+     * each empty cell with its already-visited empty neighbors, so the
+     * region count drops by one for every successful union.
+     */
+    public int getBoard3BV() {
+        if (bbbv >= 0) return bbbv;
+        long start = System.nanoTime();
+        int[] parent = new int[board.length];
+        int[] classStart = adjacency.classStart;
+        int[] offsets = adjacency.offsets;
+        int regions = 0, isolated = 0;
+
+        for (int i = 0; i < board.length; i++) {
+            if ((board[i] & BOMB) != 0) continue;
+            int cls = adjacency.classOfIndex(i);
+            boolean empty = (board[i] & COUNT_MASK) == 0;
+            if (empty) {
+                parent[i] = i;
+                regions++;
+            }
+            boolean bordersEmpty = false;
+            for (int k = classStart[cls]; k < classStart[cls + 1]; k++) {
+                int neighbor = i + offsets[k];
+                if ((board[neighbor] & (BOMB | COUNT_MASK)) != 0) continue;
+                bordersEmpty = true;
+                if (!empty) break;
+                // Join with empty neighbors visited before; each edge is seen once from its later cell
+                if (neighbor < i && union(parent, i, neighbor)) regions--;
+            }
+            if (!empty && !bordersEmpty) isolated++;
+        }
+
+        bbbv = regions + isolated;
+        Log.d(TAG, "3BV = " + bbbv + " (" + regions + " openings, " + isolated + " isolated numbers) in "
+                + (System.nanoTime() - start) / 1000 + "us");
+        return bbbv;
+    }
+
+    /** Joins the sets of a and b; returns false if they were already joined. */
+    private static boolean union(int[] parent, int a, int b) {
+        a = find(parent, a);
+        b = find(parent, b);
+        if (a == b) return false;
+        // Attach the later root under the earlier one; with path halving this stays near-linear
+        if (a < b) parent[b] = a;
+        else parent[a] = b;
+        return true;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Clicks that changed the board: reveals and chords that opened at least
+     * one cell, and flag changes. Clicks on revealed cells or unsatisfied
+     * chords are not counted.
+     */
+    public int getEffectiveClicks() {
+        return effectiveClicks;
+    }
+
+    // ------------------ POSITION HASH ------------------
+
+    /**
+     * Zobrist-style hash of what the player sees: which cells are revealed
+     * (with the number or bomb they show) and which are flagged, plus the
+     * board shape. Two games showing the same position have the same hash,
+     * whatever their hidden bombs, so results of analysing a position (e.g.
+     * deductions or mine probabilities, see {@link PositionCache}) can be
+     * looked up instead of computed again.
+     *
+     * Kept up to date incrementally: every reveal or flag change XORs one
+     * key in or out, so it costs O(1) per changed cell. Keys are derived by
+     * mixing (cell, state) rather than read from a random table, so huge
+     * boards need no per-cell key storage.
+     */
+    public long getPositionHash() {
+        return positionHash;
+    }
+
+    /** Key of a revealed cell: its index and what it shows (0-8, or a bomb). */
+    private long revealKey(int index) {
+        int shown = (board[index] & BOMB) != 0 ? BOMB : board[index] & COUNT_MASK;
+        return BoardGenerator.mix(((long) index << 7) | shown, POSITION_SALT);
+    }
+
+    private static long flagKey(int index) {
+        return BoardGenerator.mix(((long) index << 7) | FLAGGED, POSITION_SALT);
+    }
+
+    /** Hash of a board with nothing revealed or flagged. */
+    private long emptyPositionHash() {
+        return BoardGenerator.mix(((long) rows << 32) | cols, adjacency.getTopology().ordinal());
+    }
+
+    /** Full O(cells) recomputation, for a restored game. */
+    private long computePositionHash() {
+        long hash = emptyPositionHash();
+        for (int i = 0; i < board.length; i++) {
+            if ((board[i] & REVEALED) != 0) hash ^= revealKey(i);
+            if ((board[i] & FLAGGED) != 0) hash ^= flagKey(i);
+        }
+        return hash;
+    }
+
+    // ------------------ SERIALIZATION ------------------
+
+    /**
+     * Writes the complete game state in a compact binary form: a version
+     * byte and a small header, followed by the packed board (one byte per cell).
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(bombs);
+        out.writeByte(adjacency.getTopology().ordinal());
+        out.writeBoolean(firstMove);
+        out.writeBoolean(gameOver);
+        out.writeInt(revealedCells);
+        out.writeInt(effectiveClicks);
+        out.writeLong(regenerateSeed);
+        out.write(board);
+    }
+
+    /**
+     * Reads a game written by {@link #writeTo(DataOutputStream)}, including
+     * games written before the format had a version (their click count,
+     * which they did not record, starts at 0).
+     */
+    public static MinesweeperGame readFrom(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        int rows;
+        if (version == FORMAT_VERSION) {
+            rows = in.readInt();
+        } else if (version == 0) {
+            // Version 1: that byte was the top byte of the row count
+            rows = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+        } else {
+            throw new IOException("Unsupported game format " + version);
+        }
+        int cols = in.readInt();
+        int bombs = in.readInt();
+        BoardTopology topology = BoardTopology.values()[in.readUnsignedByte()];
+        boolean firstMove = in.readBoolean();
+        boolean gameOver = in.readBoolean();
+        int revealedCells = in.readInt();
+        int effectiveClicks = version == FORMAT_VERSION ? in.readInt() : 0;
+        long regenerateSeed = in.readLong();
+        byte[] board = new byte[rows * cols];
+        in.readFully(board);
+        return new MinesweeperGame(rows, cols, bombs, topology, board,
+                firstMove, gameOver, revealedCells, effectiveClicks, regenerateSeed);
+    }
+
+    /** Approximate heap size of this game, in bytes. */
+    public long estimateMemoryBytes() {
+        return 64 + board.length + (moveCells != null ? 4L * moveCells.length : 0)
+                + (bits != null ? bits.estimateMemoryBytes() : 0);
+    }
+
+    /** Whether no cell has been revealed yet (the next reveal is the safe first click). */
+    public boolean isFirstMove() {
+        return firstMove;
     }
 
     /** Returns whether the game is currently over (used by UI). */
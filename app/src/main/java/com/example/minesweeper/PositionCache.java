@@ -0,0 +1,84 @@
+package com.example.minesweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PositionCache
+ * -------------
+ * Bounded LRU cache of analysis results for board positions (a
+ * transposition table), keyed by {@link MinesweeperGame#getPositionHash()}.
+ *
+ * Analysis of a position is usually split by frontier component (a group of
+ * hidden cells constrained by the same revealed numbers). Each component's
+ * result is stored under {@link #key(long, long)} of the position hash and
+ * a component id, so a repeated position (after an undo, in a replay, on
+ * the next hint request) costs one lookup per component.
+ *
+ * Hashes are 64 bits, so collisions are possible but extremely unlikely;
+ * results are not verified against the position. Thread-safe.
+ *
+ * @param <V> Type of the cached result; must not be changed after it is cached.
+ */
+public class PositionCache<V> {
+
+    private final int capacity;
+    private final Map<Long, V> entries;
+    private long hits, misses; // Guarded by entries
+
+    /** @param capacity Maximum number of results kept; the least recently used go first. */
+    public PositionCache(final int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, V>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Combines a position hash with a component id (0 for a whole-board result). */
+    public static long key(long positionHash, long componentId) {
+        return BoardGenerator.mix(positionHash, componentId);
+    }
+
+    /** Returns the cached result, or null if the position was not analysed (or was evicted). */
+    public V get(long key) {
+        synchronized (entries) {
+            V value = entries.get(key);
+            if (value != null) hits++;
+            else misses++;
+            return value;
+        }
+    }
+
+    public void put(long key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Fraction of lookups that found a result, between 0 and 1. */
+    public double getHitRate() {
+        synchronized (entries) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
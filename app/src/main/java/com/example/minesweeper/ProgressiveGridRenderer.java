@@ -0,0 +1,125 @@
+package com.example.minesweeper;
+
+import android.view.Choreographer;
+
+/**
+ * ProgressiveGridRenderer
+ * -----------------------
+ * Repaints the cells changed by a move, spreading large change sets over
+ * several frames so a big flood doesn't freeze the UI.
+ *
+ *  - Small change sets are painted at once.
+ *  - Larger ones are painted in the order given (breadth-first from the
+ *    tapped cell, see {@link MinesweeperGame#getChangedCells()}), a slice
+ *    per frame, until {@link #FRAME_BUDGET_NANOS} is used up.
+ *  - {@link #finish()} paints whatever is left immediately; call it before
+ *    the next move so the screen never lags behind the game.
+ *
+ * Only drawing is deferred: the game state is already complete when
+ * {@link #render(int[], int)} is called.
+ */
+public class ProgressiveGridRenderer implements Choreographer.FrameCallback {
+
+    /** Paints one cell from the current game state. */
+    public interface CellPainter {
+        void paintCell(int index);
+    }
+
+    /** Change sets up to this size are painted synchronously */
+    private static final int SYNC_THRESHOLD = 256;
+
+    /** Painting time allowed per frame (leaves room for layout and drawing) */
+    private static final long FRAME_BUDGET_NANOS = 6_000_000L;
+
+    /** Cells painted between two clock reads */
+    private static final int CHECK_INTERVAL = 32;
+
+    private final CellPainter painter;
+
+    private int[] pending = new int[0];
+    private int pendingCount;
+    private int position;
+    private boolean scheduled;
+
+    public ProgressiveGridRenderer(CellPainter painter) {
+        this.painter = painter;
+    }
+
+    /**
+     * Paints the first {@code count} cells of {@code cells}. Any previous
+     * change set still pending is finished first. The array is copied.
+     */
+    public void render(int[] cells, int count) {
+        finish();
+        if (count <= SYNC_THRESHOLD) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                painter.paintCell(cells[i]);
+            }
+            EngineMetrics.UPDATE_GRID.recordSince(start);
+            return;
+        }
+
+        if (pending.length < count) pending = new int[count];
+        System.arraycopy(cells, 0, pending, 0, count);
+        pendingCount = count;
+        position = 0;
+
+        // Paint the first slice in this frame, so the tap shows a response right away
+        paintSlice(System.nanoTime());
+        if (position < pendingCount) schedule();
+    }
+
+    /** Paints everything still pending, now. */
+    public void finish() {
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+        if (position < pendingCount) {
+            long start = System.nanoTime();
+            while (position < pendingCount) {
+                painter.paintCell(pending[position++]);
+            }
+            EngineMetrics.UPDATE_GRID.recordSince(start);
+        }
+    }
+
+    /** Drops anything still pending (e.g. before a full repaint). */
+    public void cancel() {
+        if (scheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            scheduled = false;
+        }
+        position = pendingCount = 0;
+    }
+
+    /** Whether cells are still waiting to be painted. */
+    public boolean isBusy() {
+        return position < pendingCount;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled = false;
+        paintSlice(System.nanoTime());
+        if (position < pendingCount) schedule();
+    }
+
+    private void paintSlice(long start) {
+        long deadline = start + FRAME_BUDGET_NANOS;
+        while (position < pendingCount) {
+            int end = Math.min(pendingCount, position + CHECK_INTERVAL);
+            while (position < end) {
+                painter.paintCell(pending[position++]);
+            }
+            if (System.nanoTime() >= deadline) break;
+        }
+        EngineMetrics.UPDATE_GRID.recordSince(start);
+    }
+
+    private void schedule() {
+        scheduled = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+}
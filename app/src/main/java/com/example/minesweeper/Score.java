@@ -1,8 +1,12 @@
 package com.example.minesweeper;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import java.util.Locale;
+
 /**
  * Score
  * -----
@@ -10,36 +14,96 @@ import androidx.room.PrimaryKey;
  * Each record contains:
  *  - Auto-generated ID
  *  - Difficulty level (Easy / Medium / Hard)
- *  - Completion time (in seconds)
- *  - Date and time of completion
+ *  - Completion time (in milliseconds)
+ *  - Date and time of completion (epoch milliseconds, 0 if unknown)
+ *  - Whether the game was won (losses are recorded too, for statistics)
+ *  - For wins: the board's 3BV, 3BV per second and click efficiency
+ *    (3BV / effective clicks); 0 for losses and for older rows
+ *  - A result id generated when the game ends (null for older and imported
+ *    rows), so a result written twice is only stored once
  *
  * This entity is stored inside the "scores" table.
+ * The (difficulty, timestamp) index serves "this week / this month" range
+ * queries and the (difficulty, timeMillis) index serves the leaderboard ordering.
+ * The (difficulty, bbbvPerSecond) and (difficulty, efficiency) indexes serve
+ * the skill-based leaderboards. The unique resultId index makes a replayed
+ * insert of the same result a no-op (see {@link ScoreDao#recordResult}).
  */
-@Entity(tableName = "scores")
+@Entity(tableName = "scores",
+        indices = {
+                @Index(value = {"difficulty", "timestamp"}),
+                @Index(value = {"difficulty", "timeMillis"}),
+                @Index(value = {"difficulty", "bbbvPerSecond"}),
+                @Index(value = {"difficulty", "efficiency"}),
+                @Index(value = {"resultId"}, unique = true)
+        })
 public class Score {
 
     // Primary key ID, automatically generated by Room
     @PrimaryKey(autoGenerate = true)
     private int id;
     private String difficulty;
-    private int time;
-    private String date;
+    private long timeMillis;
+    private long timestamp;
+
+    // Rows written before losses were recorded are all wins
+    @ColumnInfo(defaultValue = "1")
+    private boolean won;
+
+    @ColumnInfo(defaultValue = "0")
+    private int bbbv;
+    @ColumnInfo(defaultValue = "0")
+    private double bbbvPerSecond;
+    @ColumnInfo(defaultValue = "0")
+    private double efficiency;
+
+    // Unique per result; SQLite allows any number of NULLs in a unique index
+    private String resultId;
 
-    // Constructor — used when inserting a new score
-    public Score(String difficulty, int time, String date) {
+    // Constructor — used when inserting a new game result
+    public Score(String difficulty, long timeMillis, long timestamp, boolean won) {
         this.difficulty = difficulty;
-        this.time = time;
-        this.date = date;
+        this.timeMillis = timeMillis;
+        this.timestamp = timestamp;
+        this.won = won;
+    }
+
+    /**
+     * Stores the board metrics of a won game: its 3BV and the effective
+     * clicks used. 3BV/s is derived from {@link #getTimeMillis()}, so set
+     * the time first.
+     */
+    public void setBoardMetrics(int bbbv, int effectiveClicks) {
+        this.bbbv = bbbv;
+        this.bbbvPerSecond = timeMillis > 0 ? bbbv * 1000.0 / timeMillis : 0;
+        this.efficiency = effectiveClicks > 0 ? (double) bbbv / effectiveClicks : 0;
     }
 
     // --- Getters and Setters ---
     public int getId() {return id;}
     public String getDifficulty() {return difficulty;}
-    public String getDate() {return date;}
-    public int getTime() {return time;}
+    public long getTimestamp() {return timestamp;}
+    public long getTimeMillis() {return timeMillis;}
+    public boolean isWon() {return won;}
+    public int getBbbv() {return bbbv;}
+    public double getBbbvPerSecond() {return bbbvPerSecond;}
+    public double getEfficiency() {return efficiency;}
+    public String getResultId() {return resultId;}
 
-    public void setTime(int time) {this.time = time;}
+    public void setTimeMillis(long timeMillis) {this.timeMillis = timeMillis;}
     public void setId(int id) {this.id = id;}
     public void setDifficulty(String difficulty) {this.difficulty = difficulty;}
-    public void setDate(String date) {this.date = date;}
+    public void setTimestamp(long timestamp) {this.timestamp = timestamp;}
+    public void setWon(boolean won) {this.won = won;}
+    public void setBbbv(int bbbv) {this.bbbv = bbbv;}
+    public void setBbbvPerSecond(double bbbvPerSecond) {this.bbbvPerSecond = bbbvPerSecond;}
+    public void setEfficiency(double efficiency) {this.efficiency = efficiency;}
+    public void setResultId(String resultId) {this.resultId = resultId;}
+
+    /**
+     * Formats a duration in milliseconds as seconds with three decimals (e.g. "12.345").
+     */
+    public static String formatSeconds(long millis) {
+        return String.format(Locale.US, "%d.%03d", millis / 1000, millis % 1000);
+    }
 }
@@ -9,7 +9,10 @@ import android.widget.TextView;
 
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.text.DateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * ScoreAdapter
@@ -17,6 +20,9 @@ import java.util.List;
  * This adapter connects the list of Score objects to the RecyclerView in
  * ScoreboardActivity. It inflates each row layout (item_score.xml) and binds
  * the score data (difficulty, time, and date) to the corresponding TextViews.
+ *
+ * Dates are stored as epoch milliseconds and only formatted (in the current
+ * locale) the first time a row is bound; the result is cached per position.
  */
 public class ScoreAdapter extends RecyclerView.Adapter<ScoreAdapter.ScoreViewHolder> {
 
@@ -28,10 +34,16 @@ public class ScoreAdapter extends RecyclerView.Adapter<ScoreAdapter.ScoreViewHol
     /** The list of Score objects to display */
     private List<Score> scores;
 
+    /** Lazily formatted dates, indexed by position */
+    private final String[] formattedDates;
+    private final DateFormat dateFormat = DateFormat.getDateTimeInstance();
+    private final Date reusableDate = new Date();
+
     //Constructor for the adapter
     public ScoreAdapter(Context context, List<Score> scores) {
         this.context = context;
         this.scores = scores;
+        this.formattedDates = new String[scores.size()];
         Log.d(TAG, "Adapter created with " + scores.size() + " scores.");
     }
 
@@ -56,11 +68,34 @@ public class ScoreAdapter extends RecyclerView.Adapter<ScoreAdapter.ScoreViewHol
         Score score = scores.get(position);
 
         Log.d(TAG, "Binding score at position " + position +
-                ": " + score.getDifficulty() + ", " + score.getTime() + "s");
+                ": " + score.getDifficulty() + ", " + score.getTimeMillis() + "ms");
 
         holder.tvDifficulty.setText(score.getDifficulty());
-        holder.tvTime.setText("Time: " + score.getTime() + "s");
-        holder.tvDate.setText(score.getDate());
+        if (score.getBbbv() > 0) {
+            holder.tvTime.setText(String.format(Locale.US, "Time: %ss  ·  3BV/s: %.2f  ·  Eff: %d%%",
+                    Score.formatSeconds(score.getTimeMillis()), score.getBbbvPerSecond(),
+                    Math.round(score.getEfficiency() * 100)));
+        } else {
+            holder.tvTime.setText("Time: " + Score.formatSeconds(score.getTimeMillis()) + "s");
+        }
+        holder.tvDate.setText(getFormattedDate(position, score));
+    }
+
+    /**
+     * Returns the display string of a score's date, formatting it only once.
+     */
+    private String getFormattedDate(int position, Score score) {
+        String formatted = formattedDates[position];
+        if (formatted == null) {
+            if (score.getTimestamp() == 0) {
+                formatted = "Unknown date";
+            } else {
+                reusableDate.setTime(score.getTimestamp());
+                formatted = dateFormat.format(reusableDate);
+            }
+            formattedDates[position] = formatted;
+        }
+        return formatted;
     }
 
     /**
@@ -1,8 +1,12 @@
 package com.example.minesweeper;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -12,8 +16,10 @@ import java.util.List;
  * Data Access Object (DAO) for the Room database.
  * This interface defines how the app interacts with the "scores" table.
  *
- * It allows inserting new game results and retrieving scores
- * filtered by difficulty level.
+ * It allows inserting new game results, retrieving scores
+ * filtered by difficulty level, and reading the per-difficulty
+ * statistics kept in the "difficulty_stats" table and the click
+ * heatmaps kept in the "tap_heatmaps" table.
  *
  * The @Dao annotation tells Room to automatically generate
  * the necessary SQL code behind the scenes.
@@ -22,16 +28,38 @@ import java.util.List;
 public interface ScoreDao {
 
     /**
-     * Inserts a single score record into the database.
+     * Inserts a single score record into the database. A record whose
+     * resultId is already stored is ignored.
      *
      * @param score The Score object to insert.
+     * @return The new row id, or -1 if the record was already stored.
      *
      * Example usage:
-     *   Score score = new Score("Easy", 35, "2025-10-08 14:23");
+     *   Score score = new Score("Easy", 35_250, System.currentTimeMillis(), true);
      *   scoreDao.insert(score);
      */
-    @Insert
-    void insert(Score score);
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Score score);
+
+    /**
+     * Inserts a game result and updates the matching {@link DifficultyStats}
+     * row in the same transaction, so the aggregate can never drift from
+     * the "scores" table. Recording a result that is already stored (same
+     * resultId, e.g. replayed from the write queue's recovery log) changes
+     * nothing.
+     *
+     * @param score The Score object (win or loss) to record.
+     */
+    @Transaction
+    default void recordResult(Score score) {
+        if (insert(score) == -1) return;
+        DifficultyStats stats = getStats(score.getDifficulty());
+        if (stats == null) {
+            stats = new DifficultyStats(score.getDifficulty());
+        }
+        stats.record(score.isWon(), score.getTimeMillis());
+        upsertStats(stats);
+    }
 
     /**
      * Retrieves all scores that match the given difficulty.
@@ -42,7 +70,78 @@ public interface ScoreDao {
      *
      * Example usage:
      *   List<Score> easyScores = scoreDao.getScoresByDifficulty("Easy");
+     *
+     * Only won games are returned — losses are kept for statistics only.
      */
-    @Query("SELECT * FROM scores WHERE difficulty = :difficulty ORDER BY time ASC")
+    @Query("SELECT * FROM scores WHERE difficulty = :difficulty AND won = 1 ORDER BY timeMillis ASC")
     List<Score> getScoresByDifficulty(String difficulty);
+
+    /**
+     * Retrieves the won games of a difficulty played at or after the given time.
+     * Uses the (difficulty, timestamp) index as a range scan, so "this week" or
+     * "this month" leaderboards only touch the matching rows.
+     *
+     * @param since Epoch milliseconds of the start of the period.
+     *
+     * Example usage:
+     *   List<Score> weekScores = scoreDao.getScoresByDifficultySince("Easy", startOfWeek);
+     */
+    @Query("SELECT * FROM scores WHERE difficulty = :difficulty AND timestamp >= :since AND won = 1 ORDER BY timeMillis ASC")
+    List<Score> getScoresByDifficultySince(String difficulty, long since);
+
+    /**
+     * Retrieves the won games of a difficulty ranked by 3BV per second (fastest
+     * solvers first), using the (difficulty, bbbvPerSecond) index. Unlike the
+     * time ranking, this accounts for how hard each board was.
+     * Rows recorded before 3BV was stored (bbbvPerSecond = 0) are left out.
+     */
+    @Query("SELECT * FROM scores WHERE difficulty = :difficulty AND won = 1 AND bbbvPerSecond > 0 "
+            + "ORDER BY bbbvPerSecond DESC")
+    List<Score> getScoresByDifficultyBy3BVPerSecond(String difficulty);
+
+    /**
+     * Retrieves the won games of a difficulty ranked by click efficiency
+     * (3BV / effective clicks, best first), using the (difficulty, efficiency) index.
+     */
+    @Query("SELECT * FROM scores WHERE difficulty = :difficulty AND won = 1 AND efficiency > 0 "
+            + "ORDER BY efficiency DESC")
+    List<Score> getScoresByDifficultyByEfficiency(String difficulty);
+
+    /**
+     * Returns a cursor over every stored game result (wins and losses) in
+     * insertion order. Used for streaming export, so rows are read one at a
+     * time instead of being loaded into a list. The caller must close it.
+     */
+    @Query("SELECT * FROM scores ORDER BY id")
+    Cursor getAllScoresCursor();
+
+    /**
+     * Retrieves the aggregated statistics for one difficulty.
+     * This is a primary-key lookup, so it costs the same no matter
+     * how many games have been played.
+     *
+     * @return The stats row, or null if no game was recorded yet.
+     */
+    @Query("SELECT * FROM difficulty_stats WHERE difficulty = :difficulty")
+    DifficultyStats getStats(String difficulty);
+
+    /**
+     * Inserts or replaces a statistics row.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertStats(DifficultyStats stats);
+
+    /**
+     * Retrieves the click heatmaps of one difficulty (primary-key lookup).
+     *
+     * @return The heatmap row, or null if nothing was recorded yet.
+     */
+    @Query("SELECT * FROM tap_heatmaps WHERE difficulty = :difficulty")
+    TapHeatmap getHeatmap(String difficulty);
+
+    /**
+     * Inserts or replaces a heatmap row.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertHeatmap(TapHeatmap heatmap);
 }
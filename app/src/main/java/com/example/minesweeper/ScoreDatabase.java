@@ -1,11 +1,19 @@
 package com.example.minesweeper;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.util.Log;
 
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Locale;
 
 /**
  * ScoreDatabase
@@ -15,10 +23,10 @@ import androidx.room.RoomDatabase;
  * It uses a singleton pattern to ensure only one instance of the database
  * exists throughout the entire app.
  *
- * The database includes one entity: {Score}.
+ * The database includes three entities: {Score}, {DifficultyStats} and {TapHeatmap}.
  * Access to the database is done through the {ScoreDao}.
  */
-@Database(entities = {Score.class}, version = 1)
+@Database(entities = {Score.class, DifficultyStats.class, TapHeatmap.class}, version = 7)
 public abstract class ScoreDatabase extends RoomDatabase {
 
     private static final String TAG = "ScoreDatabase";
@@ -26,6 +34,182 @@ public abstract class ScoreDatabase extends RoomDatabase {
     /** The single static instance of the database (singleton). */
     private static ScoreDatabase instance;
 
+    /**
+     * Version 1 -> 2: scores gain a "won" flag (every existing row was a win)
+     * and the "difficulty_stats" aggregate table is created and seeded
+     * from the existing rows.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE scores ADD COLUMN won INTEGER NOT NULL DEFAULT 1");
+            db.execSQL("CREATE TABLE IF NOT EXISTS difficulty_stats ("
+                    + "difficulty TEXT NOT NULL, "
+                    + "gamesPlayed INTEGER NOT NULL, "
+                    + "wins INTEGER NOT NULL, "
+                    + "totalTime INTEGER NOT NULL, "
+                    + "totalTimeSquared INTEGER NOT NULL, "
+                    + "bestTime INTEGER NOT NULL, "
+                    + "currentStreak INTEGER NOT NULL, "
+                    + "bestStreak INTEGER NOT NULL, "
+                    + "PRIMARY KEY(difficulty))");
+            // Only wins were stored before, so every game so far is part of the streak
+            db.execSQL("INSERT INTO difficulty_stats "
+                    + "SELECT difficulty, COUNT(*), COUNT(*), SUM(time), SUM(time * time), "
+                    + "MIN(time), COUNT(*), COUNT(*) "
+                    + "FROM scores WHERE difficulty IS NOT NULL GROUP BY difficulty");
+            Log.d(TAG, "Migrated score database from version 1 to 2.");
+        }
+    };
+
+    /**
+     * Version 2 -> 3: the localized "date" string is replaced by an indexed
+     * epoch-millis "timestamp" column. SQLite can't parse the old strings, so
+     * the rows are copied into a rebuilt table one by one from Java.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS scores_new ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "difficulty TEXT, "
+                    + "time INTEGER NOT NULL, "
+                    + "timestamp INTEGER NOT NULL, "
+                    + "won INTEGER NOT NULL DEFAULT 1)");
+
+            SupportSQLiteStatement insert = db.compileStatement(
+                    "INSERT INTO scores_new (id, difficulty, time, timestamp, won) VALUES (?, ?, ?, ?, ?)");
+            int unparsed = 0;
+            Cursor cursor = db.query("SELECT id, difficulty, time, date, won FROM scores");
+            try {
+                while (cursor.moveToNext()) {
+                    long timestamp = parseLegacyDate(cursor.getString(3));
+                    if (timestamp == 0) unparsed++;
+
+                    insert.clearBindings();
+                    insert.bindLong(1, cursor.getLong(0));
+                    if (cursor.isNull(1)) insert.bindNull(2);
+                    else insert.bindString(2, cursor.getString(1));
+                    insert.bindLong(3, cursor.getLong(2));
+                    insert.bindLong(4, timestamp);
+                    insert.bindLong(5, cursor.getLong(4));
+                    insert.executeInsert();
+                }
+            } finally {
+                cursor.close();
+            }
+
+            db.execSQL("DROP TABLE scores");
+            db.execSQL("ALTER TABLE scores_new RENAME TO scores");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_timestamp ON scores (difficulty, timestamp)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_time ON scores (difficulty, time)");
+            Log.d(TAG, "Migrated score database from version 2 to 3 (" + unparsed + " dates could not be parsed).");
+        }
+    };
+
+    /**
+     * Version 3 -> 4: scores are stored in milliseconds. "time" (seconds) is
+     * replaced by "timeMillis" (the table is rebuilt, since SQLite on older
+     * devices can't rename columns) and the time aggregates in
+     * "difficulty_stats" are converted to milliseconds.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS scores_new ("
+                    + "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "difficulty TEXT, "
+                    + "timeMillis INTEGER NOT NULL, "
+                    + "timestamp INTEGER NOT NULL, "
+                    + "won INTEGER NOT NULL DEFAULT 1)");
+            db.execSQL("INSERT INTO scores_new (id, difficulty, timeMillis, timestamp, won) "
+                    + "SELECT id, difficulty, time * 1000, timestamp, won FROM scores");
+            db.execSQL("DROP TABLE scores");
+            db.execSQL("ALTER TABLE scores_new RENAME TO scores");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_timestamp ON scores (difficulty, timestamp)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_timeMillis ON scores (difficulty, timeMillis)");
+
+            db.execSQL("UPDATE difficulty_stats SET totalTime = totalTime * 1000, "
+                    + "totalTimeSquared = totalTimeSquared * 1000000, bestTime = bestTime * 1000");
+            Log.d(TAG, "Migrated score database from version 3 to 4.");
+        }
+    };
+
+    /**
+     * Version 4 -> 5: scores gain the board's 3BV, 3BV per second and click
+     * efficiency, with indexes for ranking by them. Existing rows get 0
+     * (unknown), which ranks them last.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE scores ADD COLUMN bbbv INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE scores ADD COLUMN bbbvPerSecond REAL NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE scores ADD COLUMN efficiency REAL NOT NULL DEFAULT 0");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_bbbvPerSecond ON scores (difficulty, bbbvPerSecond)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_scores_difficulty_efficiency ON scores (difficulty, efficiency)");
+            Log.d(TAG, "Migrated score database from version 4 to 5.");
+        }
+    };
+
+    /**
+     * Version 5 -> 6: the "tap_heatmaps" table (per-difficulty click
+     * histograms, see {@link TapHeatmap}) is created, empty.
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS tap_heatmaps ("
+                    + "difficulty TEXT NOT NULL, "
+                    + "boardRows INTEGER NOT NULL, "
+                    + "boardCols INTEGER NOT NULL, "
+                    + "games INTEGER NOT NULL, "
+                    + "firstClicks BLOB, "
+                    + "deaths BLOB, "
+                    + "flags BLOB, "
+                    + "PRIMARY KEY(difficulty))");
+            Log.d(TAG, "Migrated score database from version 5 to 6.");
+        }
+    };
+
+    /**
+     * Version 6 -> 7: scores gain a unique "resultId", so a result replayed
+     * from the write queue's recovery log is not stored twice. Existing rows
+     * keep NULL, which the unique index allows any number of times.
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE scores ADD COLUMN resultId TEXT");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_scores_resultId ON scores (resultId)");
+            Log.d(TAG, "Migrated score database from version 6 to 7.");
+        }
+    };
+
+    /**
+     * Parses a date written by {@code DateFormat.getDateTimeInstance().format(...)}.
+     * The device locale may have changed since the row was written, so the
+     * current locale is tried first and then US English.
+     *
+     * @return Epoch milliseconds, or 0 if the string can't be parsed.
+     */
+    static long parseLegacyDate(String date) {
+        if (date == null) return 0;
+        DateFormat[] formats = {
+                DateFormat.getDateTimeInstance(),
+                DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
+        };
+        for (DateFormat format : formats) {
+            try {
+                return format.parse(date).getTime();
+            } catch (ParseException e) {
+                // Try the next format
+            }
+        }
+        Log.w(TAG, "Could not parse legacy date: " + date);
+        return 0;
+    }
+
     /**
      * Abstract method to access the DAO (Data Access Object).
      * Room automatically generates the implementation.
@@ -57,6 +241,10 @@ public abstract class ScoreDatabase extends RoomDatabase {
                     // Normally discouraged, but acceptable for small apps or prototypes.
                     .allowMainThreadQueries()
 
+                    // Keep existing scores when the schema changes
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                            MIGRATION_6_7)
+
                     // Build the database
                     .build();
 
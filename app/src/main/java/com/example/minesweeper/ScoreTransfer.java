@@ -0,0 +1,477 @@
+package com.example.minesweeper;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ScoreTransfer
+ * -------------
+ * Streaming export and import of the full "scores" history as CSV or
+ * newline-delimited JSON (one object per line).
+ *
+ * Both directions work row by row — export reads through a database
+ * cursor into a buffered writer, import parses one line at a time — so
+ * memory use stays flat no matter how many rows there are.
+ *
+ * Import writes rows with multi-row INSERT statements ({@link #ROWS_PER_STATEMENT}
+ * rows each) inside large transactions ({@link #ROWS_PER_TRANSACTION} rows each)
+ * instead of one {@link ScoreDao#insert(Score)} call per row, and rebuilds the
+ * "difficulty_stats" table in a single ordered pass at the end. If an import
+ * fails part-way, the chunks already committed stay and the statistics are
+ * rebuilt for them.
+ *
+ * CSV layout:    difficulty,timeMillis,timestamp,won,bbbv,bbbvPerSecond,efficiency
+ * NDJSON layout: {"difficulty":"Easy","timeMillis":35250,"timestamp":1700000000000,"won":true,
+ *                 "bbbv":42,"bbbvPerSecond":1.19,"efficiency":0.84}
+ * Files written before the board metrics existed (without the last three
+ * fields) are still accepted; those rows get 0. Files written before times
+ * were stored in milliseconds have a "time" column / key in seconds instead
+ * of "timeMillis"; it is converted on import.
+ */
+public class ScoreTransfer {
+
+    private static final String TAG = "ScoreTransfer";
+
+    /** Supported file formats */
+    public enum Format { CSV, NDJSON }
+
+    /** Rows per INSERT statement (7 bound values each, below SQLite's 999 variable limit) */
+    static final int ROWS_PER_STATEMENT = 140;
+
+    /** Rows committed per transaction during import */
+    static final int ROWS_PER_TRANSACTION = 50_000;
+
+    private static final String CSV_HEADER = "difficulty,timeMillis,timestamp,won,bbbv,bbbvPerSecond,efficiency";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ScoreDatabase database;
+
+    public ScoreTransfer(ScoreDatabase database) {
+        this.database = database;
+    }
+
+    // ------------------ EXPORT ------------------
+
+    /**
+     * Writes every score (wins and losses) to the stream in the given format.
+     * The stream is flushed but not closed.
+     *
+     * @return Number of rows written.
+     */
+    public int exportScores(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(128);
+        int count = 0;
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        Cursor cursor = database.scoreDao().getAllScoresCursor();
+        try {
+            int difficultyIndex = cursor.getColumnIndexOrThrow("difficulty");
+            int timeIndex = cursor.getColumnIndexOrThrow("timeMillis");
+            int timestampIndex = cursor.getColumnIndexOrThrow("timestamp");
+            int wonIndex = cursor.getColumnIndexOrThrow("won");
+            int bbbvIndex = cursor.getColumnIndexOrThrow("bbbv");
+            int bbbvPerSecondIndex = cursor.getColumnIndexOrThrow("bbbvPerSecond");
+            int efficiencyIndex = cursor.getColumnIndexOrThrow("efficiency");
+
+            while (cursor.moveToNext()) {
+                String difficulty = cursor.isNull(difficultyIndex) ? "" : cursor.getString(difficultyIndex);
+                long timeMillis = cursor.getLong(timeIndex);
+                long timestamp = cursor.getLong(timestampIndex);
+                boolean won = cursor.getInt(wonIndex) != 0;
+                int bbbv = cursor.getInt(bbbvIndex);
+                double bbbvPerSecond = cursor.getDouble(bbbvPerSecondIndex);
+                double efficiency = cursor.getDouble(efficiencyIndex);
+
+                line.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsvField(line, difficulty);
+                    line.append(',').append(timeMillis)
+                            .append(',').append(timestamp)
+                            .append(',').append(won ? 1 : 0)
+                            .append(',').append(bbbv)
+                            .append(',').append(bbbvPerSecond)
+                            .append(',').append(efficiency);
+                } else {
+                    line.append("{\"difficulty\":");
+                    appendJsonString(line, difficulty);
+                    line.append(",\"timeMillis\":").append(timeMillis)
+                            .append(",\"timestamp\":").append(timestamp)
+                            .append(",\"won\":").append(won)
+                            .append(",\"bbbv\":").append(bbbv)
+                            .append(",\"bbbvPerSecond\":").append(bbbvPerSecond)
+                            .append(",\"efficiency\":").append(efficiency)
+                            .append('}');
+                }
+                line.append('\n');
+                writer.append(line);
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+
+        writer.flush();
+        Log.d(TAG, "Exported " + count + " scores as " + format);
+        return count;
+    }
+
+    private static void appendCsvField(StringBuilder sb, String value) {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0;
+        if (!needsQuotes) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    // ------------------ IMPORT ------------------
+
+    /**
+     * Reads scores from the stream and appends them to the database.
+     * The format is detected from the first line ('{' means NDJSON, anything
+     * else is CSV with an optional header). Malformed lines are skipped.
+     * The stream is not closed.
+     *
+     * @return Number of rows imported.
+     */
+    public int importScores(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        BatchInserter inserter = new BatchInserter(db);
+
+        Format format = null;
+        long csvTimeScale = 1; // 1000 for a legacy CSV header whose "time" column is in seconds
+        int skipped = 0;
+        String line;
+        boolean chunkCommitted = false;
+        boolean finished = false;
+
+        try {
+            db.beginTransaction();
+            try {
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty()) continue;
+
+                    if (format == null) {
+                        format = line.startsWith("{") ? Format.NDJSON : Format.CSV;
+                        Log.d(TAG, "Detected import format: " + format);
+                        if (format == Format.CSV && line.startsWith("difficulty")) {
+                            if (isLegacyCsvHeader(line)) csvTimeScale = 1000;
+                            continue; // header
+                        }
+                    }
+
+                    boolean ok = format == Format.CSV
+                            ? parseCsvLine(line, csvTimeScale, inserter)
+                            : parseJsonLine(line, inserter);
+                    if (!ok) {
+                        skipped++;
+                        continue;
+                    }
+
+                    if (inserter.total % ROWS_PER_TRANSACTION == 0) {
+                        // Commit this chunk and start the next transaction
+                        inserter.flush();
+                        db.setTransactionSuccessful();
+                        db.endTransaction();
+                        chunkCommitted = true;
+                        db.beginTransaction();
+                    }
+                }
+                inserter.flush();
+                rebuildStats(db);
+                db.setTransactionSuccessful();
+                finished = true;
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            inserter.close();
+            if (!finished && chunkCommitted) {
+                // The chunks committed before the failure stay; keep the stats in line with them
+                rebuildStatsAfterFailure(db);
+            }
+        }
+
+        Log.d(TAG, "Imported " + inserter.total + " scores (" + skipped + " lines skipped)");
+        return inserter.total;
+    }
+
+    /** Rebuilds the statistics in their own transaction after a failed import. */
+    private static void rebuildStatsAfterFailure(SupportSQLiteDatabase db) {
+        try {
+            db.beginTransaction();
+            try {
+                rebuildStats(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            // Don't hide the import failure; the stats are rebuilt by the next import
+            Log.e(TAG, "Rebuilding statistics after a failed import failed", e);
+        }
+    }
+
+    /** True for a header of the old format, whose second column is "time" in seconds. */
+    static boolean isLegacyCsvHeader(String header) {
+        String[] columns = header.split(",");
+        return columns.length > 1 && columns[1].trim().equals("time");
+    }
+
+    /**
+     * Parses one CSV row. The time column is multiplied by {@code timeScale}
+     * (1000 for legacy files in seconds).
+     */
+    private static boolean parseCsvLine(String line, long timeScale, BatchInserter inserter) {
+        String difficulty;
+        int rest;
+        if (line.startsWith("\"")) {
+            // Quoted difficulty with "" escapes
+            StringBuilder sb = new StringBuilder();
+            int i = 1;
+            while (i < line.length()) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                sb.append(c);
+                i++;
+            }
+            difficulty = sb.toString();
+            rest = line.indexOf(',', i);
+        } else {
+            rest = line.indexOf(',');
+            if (rest < 0) return false;
+            difficulty = line.substring(0, rest);
+        }
+        if (rest < 0) return false;
+
+        String[] parts = line.substring(rest + 1).split(",");
+        if (parts.length != 3 && parts.length != 6) return false;
+        try {
+            long timeMillis = Long.parseLong(parts[0].trim()) * timeScale;
+            long timestamp = Long.parseLong(parts[1].trim());
+            String won = parts[2].trim();
+            int bbbv = 0;
+            double bbbvPerSecond = 0, efficiency = 0;
+            if (parts.length == 6) {
+                bbbv = Integer.parseInt(parts[3].trim());
+                bbbvPerSecond = Double.parseDouble(parts[4].trim());
+                efficiency = Double.parseDouble(parts[5].trim());
+            }
+            inserter.add(difficulty, timeMillis, timestamp, "1".equals(won) || "true".equalsIgnoreCase(won),
+                    bbbv, bbbvPerSecond, efficiency);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean parseJsonLine(String line, BatchInserter inserter) {
+        try {
+            JSONObject json = new JSONObject(line);
+            // Lines written before times were in milliseconds have "time" in seconds
+            long timeMillis = json.has("timeMillis") ? json.getLong("timeMillis") : json.getLong("time") * 1000;
+            inserter.add(json.getString("difficulty"),
+                    timeMillis,
+                    json.getLong("timestamp"),
+                    json.optBoolean("won", true),
+                    json.optInt("bbbv", 0),
+                    json.optDouble("bbbvPerSecond", 0),
+                    json.optDouble("efficiency", 0));
+            return true;
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Buffers parsed rows in primitive arrays and writes them with one
+     * multi-row INSERT per {@link #ROWS_PER_STATEMENT} rows.
+     * {@link #close()} releases the compiled statement.
+     */
+    private static class BatchInserter {
+        private final SupportSQLiteDatabase db;
+        private final SupportSQLiteStatement fullStatement;
+
+        private final String[] difficulties = new String[ROWS_PER_STATEMENT];
+        private final long[] times = new long[ROWS_PER_STATEMENT];
+        private final long[] timestamps = new long[ROWS_PER_STATEMENT];
+        private final boolean[] wins = new boolean[ROWS_PER_STATEMENT];
+        private final int[] bbbvs = new int[ROWS_PER_STATEMENT];
+        private final double[] bbbvPerSeconds = new double[ROWS_PER_STATEMENT];
+        private final double[] efficiencies = new double[ROWS_PER_STATEMENT];
+        private int buffered;
+        int total;
+
+        BatchInserter(SupportSQLiteDatabase db) {
+            this.db = db;
+            this.fullStatement = db.compileStatement(buildInsertSql(ROWS_PER_STATEMENT));
+        }
+
+        void add(String difficulty, long timeMillis, long timestamp, boolean won,
+                 int bbbv, double bbbvPerSecond, double efficiency) {
+            difficulties[buffered] = difficulty;
+            times[buffered] = timeMillis;
+            timestamps[buffered] = timestamp;
+            wins[buffered] = won;
+            bbbvs[buffered] = bbbv;
+            bbbvPerSeconds[buffered] = bbbvPerSecond;
+            efficiencies[buffered] = efficiency;
+            buffered++;
+            total++;
+            if (buffered == ROWS_PER_STATEMENT) {
+                execute(fullStatement);
+            }
+        }
+
+        /** Writes any partially filled batch. */
+        void flush() {
+            if (buffered == 0) return;
+            SupportSQLiteStatement partial = db.compileStatement(buildInsertSql(buffered));
+            try {
+                execute(partial);
+            } finally {
+                closeStatement(partial);
+            }
+        }
+
+        void close() {
+            closeStatement(fullStatement);
+        }
+
+        private void execute(SupportSQLiteStatement statement) {
+            statement.clearBindings();
+            int arg = 1;
+            for (int i = 0; i < buffered; i++) {
+                statement.bindString(arg++, difficulties[i]);
+                statement.bindLong(arg++, times[i]);
+                statement.bindLong(arg++, timestamps[i]);
+                statement.bindLong(arg++, wins[i] ? 1 : 0);
+                statement.bindLong(arg++, bbbvs[i]);
+                statement.bindDouble(arg++, bbbvPerSeconds[i]);
+                statement.bindDouble(arg++, efficiencies[i]);
+                difficulties[i] = null;
+            }
+            statement.executeInsert();
+            buffered = 0;
+        }
+
+        private static String buildInsertSql(int rows) {
+            StringBuilder sql = new StringBuilder("INSERT INTO scores "
+                    + "(difficulty, timeMillis, timestamp, won, bbbv, bbbvPerSecond, efficiency) VALUES ");
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) sql.append(',');
+                sql.append("(?, ?, ?, ?, ?, ?, ?)");
+            }
+            return sql.toString();
+        }
+    }
+
+    // ------------------ STATISTICS ------------------
+
+    /**
+     * Recomputes "difficulty_stats" from the "scores" table in one pass
+     * ordered by (difficulty, timestamp), so streaks follow play order.
+     * Must run inside a transaction.
+     */
+    static void rebuildStats(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM difficulty_stats");
+        SupportSQLiteStatement insert = db.compileStatement("INSERT INTO difficulty_stats "
+                + "(difficulty, gamesPlayed, wins, totalTime, totalTimeSquared, bestTime, currentStreak, bestStreak) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+
+        try {
+            DifficultyStats stats = null;
+            Cursor cursor = db.query("SELECT difficulty, timeMillis, won FROM scores "
+                    + "WHERE difficulty IS NOT NULL ORDER BY difficulty, timestamp, id");
+            try {
+                while (cursor.moveToNext()) {
+                    String difficulty = cursor.getString(0);
+                    if (stats == null || !stats.getDifficulty().equals(difficulty)) {
+                        if (stats != null) writeStats(insert, stats);
+                        stats = new DifficultyStats(difficulty);
+                    }
+                    stats.record(cursor.getInt(2) != 0, cursor.getLong(1));
+                }
+            } finally {
+                cursor.close();
+            }
+            if (stats != null) writeStats(insert, stats);
+        } finally {
+            closeStatement(insert);
+        }
+        Log.d(TAG, "Statistics rebuilt from scores table.");
+    }
+
+    private static void writeStats(SupportSQLiteStatement insert, DifficultyStats stats) {
+        insert.clearBindings();
+        insert.bindString(1, stats.getDifficulty());
+        insert.bindLong(2, stats.getGamesPlayed());
+        insert.bindLong(3, stats.getWins());
+        insert.bindLong(4, stats.getTotalTime());
+        insert.bindLong(5, stats.getTotalTimeSquared());
+        insert.bindLong(6, stats.getBestTime());
+        insert.bindLong(7, stats.getCurrentStreak());
+        insert.bindLong(8, stats.getBestStreak());
+        insert.executeInsert();
+    }
+
+    private static void closeStatement(SupportSQLiteStatement statement) {
+        try {
+            statement.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close statement", e);
+        }
+    }
+}
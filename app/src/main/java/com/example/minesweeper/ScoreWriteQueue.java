@@ -0,0 +1,294 @@
+package com.example.minesweeper;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScoreWriteQueue
+ * ---------------
+ * Write-behind queue for game results.
+ *
+ * Instead of writing every result as its own implicit transaction (one
+ * journal sync each), records are collected and committed together in a
+ * single transaction when:
+ *  - {@link #MAX_BATCH} records are pending, or
+ *  - {@link #FLUSH_DELAY_MS} have passed since the first pending record, or
+ *  - {@link #flush()} / {@link #flushAndWait()} is called (e.g. when the
+ *    game screen goes to the background or the scoreboard is opened).
+ *
+ * Every record is first appended to a small recovery log in the app's files
+ * directory. The log is cleared after a successful commit and replayed by
+ * the next process before its first enqueue or flush, so a process death
+ * never loses a result.
+ * If the process dies between the commit and the log being cleared, the
+ * batch is replayed once more; every record carries a result id (unique in
+ * the "scores" table), so the replayed records are recognised and skipped
+ * instead of being stored and counted twice.
+ *
+ * All work runs on a single background thread, so records keep their order.
+ * Creating the queue does no work: the log is read and the database is
+ * opened (through {@link MinesweeperApp#awaitDatabase()}) on that thread
+ * when the first record or flush needs them, so a screen can create the
+ * queue before its first frame.
+ */
+public class ScoreWriteQueue {
+
+    private static final String TAG = "ScoreWriteQueue";
+
+    /** Number of pending records that triggers an immediate commit */
+    static final int MAX_BATCH = 32;
+
+    /** Maximum time a record waits before being committed */
+    static final long FLUSH_DELAY_MS = 10_000;
+
+    private static final String LOG_FILE_NAME = "score_queue.log";
+
+    /** The single static instance of the queue (singleton). */
+    private static ScoreWriteQueue instance;
+
+    private final MinesweeperApp app;
+    private final File logFile;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    // Only touched on the executor thread
+    private final List<Score> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private FileOutputStream logStream;
+    private boolean recovered;
+
+    private ScoreWriteQueue(Context context) {
+        this.app = (MinesweeperApp) context;
+        this.logFile = new File(context.getFilesDir(), LOG_FILE_NAME);
+    }
+
+    /**
+     * Returns the singleton queue, creating it on first use.
+     *
+     * @param context Any context; the application context is kept.
+     */
+    public static synchronized ScoreWriteQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new ScoreWriteQueue(context.getApplicationContext());
+            Log.d(TAG, "ScoreWriteQueue created.");
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a game result for writing. Returns immediately.
+     * The result gets a result id (if it has none) that identifies it when
+     * it is replayed from the recovery log.
+     */
+    public void enqueue(final Score score) {
+        if (score.getResultId() == null) {
+            score.setResultId(UUID.randomUUID().toString());
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                recoverOnce();
+                appendToLog(score);
+                pending.add(score);
+                Log.d(TAG, "Queued result, " + pending.size() + " pending.");
+
+                if (pending.size() >= MAX_BATCH) {
+                    commitPending();
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = executor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            commitPending();
+                        }
+                    }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Commits all pending records in the background.
+     */
+    public Future<?> flush() {
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                recoverOnce();
+                commitPending();
+            }
+        });
+    }
+
+    /**
+     * Commits all pending records, then runs {@code action} on the queue's
+     * thread. Lets a screen read the latest results in the background
+     * without blocking a thread of its own while the commit runs.
+     */
+    public Future<?> flushThen(final Runnable action) {
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                recoverOnce();
+                commitPending();
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Commits all pending records and waits until they are in the database.
+     * Used before reading scores so that the latest results are visible.
+     */
+    public void flushAndWait() {
+        try {
+            flush().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Flush failed", e);
+        }
+    }
+
+    /**
+     * Writes every pending record in one transaction, then clears the recovery log.
+     * Runs on the executor thread.
+     */
+    private void commitPending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty()) return;
+
+        final List<Score> batch = new ArrayList<>(pending);
+        final ScoreDatabase db;
+        try {
+            db = app.awaitDatabase();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Database could not be opened", e);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            db.runInTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    ScoreDao dao = db.scoreDao();
+                    for (Score score : batch) {
+                        dao.recordResult(score);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Keep the records (and the log) so the next flush retries them
+            Log.e(TAG, "Committing " + batch.size() + " results failed", e);
+            return;
+        }
+
+        EngineMetrics.DB_WRITE.recordSince(start);
+        pending.clear();
+        clearLog();
+        Log.d(TAG, "Committed " + batch.size() + " results in one transaction.");
+    }
+
+    // ------------------ RECOVERY LOG ------------------
+
+    /**
+     * Appends one record as a tab-separated line: difficulty, timeMillis,
+     * timestamp, won, bbbv, bbbvPerSecond, efficiency, resultId.
+     */
+    private void appendToLog(Score score) {
+        String line = score.getDifficulty() + "\t" + score.getTimeMillis() + "\t"
+                + score.getTimestamp() + "\t" + (score.isWon() ? 1 : 0) + "\t"
+                + score.getBbbv() + "\t" + score.getBbbvPerSecond() + "\t" + score.getEfficiency() + "\t"
+                + score.getResultId() + "\n";
+        try {
+            if (logStream == null) {
+                logStream = new FileOutputStream(logFile, true);
+            }
+            logStream.write(line.getBytes(StandardCharsets.UTF_8));
+            logStream.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "Could not append to recovery log", e);
+        }
+    }
+
+    private void clearLog() {
+        try {
+            if (logStream != null) {
+                logStream.close();
+                logStream = null;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close recovery log", e);
+        }
+        if (logFile.exists() && !logFile.delete()) {
+            Log.w(TAG, "Could not delete recovery log");
+        }
+    }
+
+    /** Replays the log of a previous process, the first time the queue does any work. */
+    private void recoverOnce() {
+        if (recovered) return;
+        recovered = true;
+        recoverFromLog();
+    }
+
+    /** Reads records left in the log by a previous process and commits them. */
+    private void recoverFromLog() {
+        if (!logFile.exists()) return;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                // Lines from before the board metrics have 4 fields, from before result ids 7
+                if (parts.length != 4 && parts.length != 7 && parts.length != 8) continue; // Partially written last line
+                try {
+                    Score score = new Score(parts[0], Long.parseLong(parts[1]),
+                            Long.parseLong(parts[2]), "1".equals(parts[3]));
+                    if (parts.length >= 7) {
+                        score.setBbbv(Integer.parseInt(parts[4]));
+                        score.setBbbvPerSecond(Double.parseDouble(parts[5]));
+                        score.setEfficiency(Double.parseDouble(parts[6]));
+                    }
+                    if (parts.length == 8) {
+                        score.setResultId(parts[7]);
+                    }
+                    pending.add(score);
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Skipping corrupt recovery log line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read recovery log", e);
+            return;
+        }
+
+        Log.d(TAG, "Recovered " + pending.size() + " results from the log.");
+        commitPending();
+        if (!pending.isEmpty()) {
+            // Commit failed: keep the old log, new records are appended to it
+            Log.w(TAG, "Recovered results not committed yet; keeping log.");
+        }
+    }
+}
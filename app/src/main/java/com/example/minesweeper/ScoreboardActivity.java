@@ -1,10 +1,16 @@
 package com.example.minesweeper;
 
+import androidx.activity.result.ActivityResultCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import android.content.DialogInterface;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -12,7 +18,13 @@ import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
 import java.util.List;
 
 /**
@@ -20,7 +32,12 @@ import java.util.List;
  * -------------------
  * Displays a list of saved game scores using a RecyclerView.
  * The player can filter scores by difficulty (Easy / Medium / Hard)
- * using a Spinner dropdown, and return to the Main Menu using a button.
+ * using a Spinner dropdown, narrow them to this week or this month with a
+ * second Spinner, and return to the Main Menu using a button.
+ * The full history can be exported to / imported from a CSV or
+ * JSON-lines file chosen with the system file picker.
+ * A header above the list shows the aggregated statistics for the
+ * selected difficulty (games played, win rate, best/average time, streaks).
  *
  * This class interacts with the Room database (ScoreDatabase via ScoreDao)
  * to retrieve and display data.
@@ -32,7 +49,10 @@ public class ScoreboardActivity extends AppCompatActivity {
     /** UI components */
     private RecyclerView recyclerScores;
     private Spinner spinnerDifficulty;
+    private Spinner spinnerPeriod;
     private Button btnReturnMain;
+    private Button btnExport, btnImport;
+    private TextView tvStats;
 
     /** Adapter and data access */
     private ScoreAdapter scoreAdapter;
@@ -41,6 +61,37 @@ public class ScoreboardActivity extends AppCompatActivity {
     /** Currently selected difficulty (default: Easy) */
     private String selectedDifficulty = "Easy";
 
+    /** Time period filter: all time, this week or this month */
+    private static final int PERIOD_ALL = 0;
+    private static final int PERIOD_WEEK = 1;
+    private static final int PERIOD_MONTH = 2;
+    private int selectedPeriod = PERIOD_ALL;
+
+    /** Incremented by every load; results of an older load are dropped. UI thread only. */
+    private int loadGeneration;
+
+    /** Format chosen for the export currently in progress */
+    private ScoreTransfer.Format exportFormat = ScoreTransfer.Format.CSV;
+
+    /** System file pickers for export (create a file) and import (open a file) */
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/plain"),
+            new ActivityResultCallback<Uri>() {
+                @Override
+                public void onActivityResult(Uri uri) {
+                    if (uri != null) exportScores(uri);
+                }
+            });
+
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            new ActivityResultCallback<Uri>() {
+                @Override
+                public void onActivityResult(Uri uri) {
+                    if (uri != null) importScores(uri);
+                }
+            });
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -50,7 +101,11 @@ public class ScoreboardActivity extends AppCompatActivity {
         // --- Initialize Views ---
         recyclerScores = findViewById(R.id.recyclerScores);
         spinnerDifficulty = findViewById(R.id.spinnerDifficulty);
+        spinnerPeriod = findViewById(R.id.spinnerPeriod);
         btnReturnMain = findViewById(R.id.btnReturnMain);
+        btnExport = findViewById(R.id.btnExport);
+        btnImport = findViewById(R.id.btnImport);
+        tvStats = findViewById(R.id.tvStats);
 
         // --- Initialize Database ---
         scoreDao = ScoreDatabase.getInstance(this).scoreDao();
@@ -101,6 +156,30 @@ public class ScoreboardActivity extends AppCompatActivity {
             }
         });
 
+        // --- Period spinner (all time / this week / this month) ---
+        final String[] periods = {"All time", "This week", "This month"};
+        ArrayAdapter<String> periodAdapter = new ArrayAdapter<String>(
+                this,
+                R.layout.spinner_selected_item,
+                periods
+        );
+        periodAdapter.setDropDownViewResource(R.layout.spinner_selected_item);
+        spinnerPeriod.setAdapter(periodAdapter);
+        spinnerPeriod.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                if (position == selectedPeriod) return;
+                selectedPeriod = position;
+                Log.d(TAG, "Period spinner changed: " + periods[position]);
+                loadScores(selectedDifficulty);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                Log.d(TAG, "No period selected in spinner");
+            }
+        });
+
         // --- Return to main menu button ---
         btnReturnMain.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -113,6 +192,23 @@ public class ScoreboardActivity extends AppCompatActivity {
             }
         });
 
+        // --- Export / import buttons ---
+        btnExport.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Log.d(TAG, "Export button clicked");
+                showExportFormatDialog();
+            }
+        });
+
+        btnImport.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Log.d(TAG, "Import button clicked");
+                importLauncher.launch(new String[]{"text/*", "application/json", "application/octet-stream"});
+            }
+        });
+
         // --- Initial load of scores ---
         loadScores(selectedDifficulty);
     }
@@ -128,13 +224,149 @@ public class ScoreboardActivity extends AppCompatActivity {
         loadScores(selectedDifficulty);
     }
 
-    // Loads scores from the database by difficulty and updates the RecyclerView.
-    private void loadScores(String difficulty) {
-        List<Score> scores = scoreDao.getScoresByDifficulty(difficulty);
-        Log.d(TAG, "loadScores: Retrieved " + scores.size() + " scores for difficulty: " + difficulty);
+    // Loads scores from the database by difficulty on the write queue's thread,
+    // then updates the RecyclerView and the stats header on the UI thread.
+    private void loadScores(final String difficulty) {
+        final int load = ++loadGeneration;
+        final int period = selectedPeriod;
+        final long periodStart = period == PERIOD_ALL ? 0 : getPeriodStart(period);
+        // Read after the write queue's flush, so results still waiting in it are visible
+        ScoreWriteQueue.getInstance(this).flushThen(new Runnable() {
+            @Override
+            public void run() {
+                final List<Score> scores;
+                if (period == PERIOD_ALL) {
+                    scores = scoreDao.getScoresByDifficulty(difficulty);
+                } else {
+                    scores = scoreDao.getScoresByDifficultySince(difficulty, periodStart);
+                }
+                final DifficultyStats stats = scoreDao.getStats(difficulty);
+                Log.d(TAG, "loadScores: Retrieved " + scores.size() + " scores for difficulty: " + difficulty);
+
+                AppExecutors.mainThread().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // A newer load was started (selection changed) or the screen is gone
+                        if (load != loadGeneration || isDestroyed()) return;
+
+                        scoreAdapter = new ScoreAdapter(ScoreboardActivity.this, scores);
+                        recyclerScores.setAdapter(scoreAdapter);
+                        Log.d(TAG, "RecyclerView adapter updated");
 
-        scoreAdapter = new ScoreAdapter(ScoreboardActivity.this, scores);
-        recyclerScores.setAdapter(scoreAdapter);
-        Log.d(TAG, "RecyclerView adapter updated");
+                        showStats(stats);
+                    }
+                });
+            }
+        });
+    }
+
+    // Asks for the export format, then opens the system "create file" picker.
+    private void showExportFormatDialog() {
+        final String[] formats = {"CSV", "JSON lines"};
+        AlertDialog.Builder builder = new AlertDialog.Builder(ScoreboardActivity.this);
+        builder.setTitle("Export format");
+        builder.setItems(formats, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                if (which == 0) {
+                    exportFormat = ScoreTransfer.Format.CSV;
+                    exportLauncher.launch("minesweeper_scores.csv");
+                } else {
+                    exportFormat = ScoreTransfer.Format.NDJSON;
+                    exportLauncher.launch("minesweeper_scores.ndjson");
+                }
+            }
+        });
+        builder.setNegativeButton("Cancel", null);
+        builder.show();
+    }
+
+    // Streams all scores into the chosen file on a background thread.
+    private void exportScores(final Uri uri) {
+        final ScoreTransfer.Format format = exportFormat;
+        AppExecutors.io().execute(new Runnable() {
+            @Override
+            public void run() {
+                String result;
+                ScoreWriteQueue.getInstance(ScoreboardActivity.this).flushAndWait();
+                try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                    int count = new ScoreTransfer(ScoreDatabase.getInstance(ScoreboardActivity.this))
+                            .exportScores(out, format);
+                    result = "Exported " + count + " scores";
+                } catch (IOException e) {
+                    Log.e(TAG, "Export failed", e);
+                    result = "Export failed";
+                }
+                showTransferResult(result, false);
+            }
+        });
+    }
+
+    // Streams scores from the chosen file into the database on a background thread.
+    private void importScores(final Uri uri) {
+        AppExecutors.io().execute(new Runnable() {
+            @Override
+            public void run() {
+                String result;
+                ScoreWriteQueue.getInstance(ScoreboardActivity.this).flushAndWait();
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    int count = new ScoreTransfer(ScoreDatabase.getInstance(ScoreboardActivity.this))
+                            .importScores(in);
+                    result = "Imported " + count + " scores";
+                } catch (IOException | RuntimeException e) {
+                    Log.e(TAG, "Import failed", e);
+                    result = "Import failed";
+                }
+                showTransferResult(result, true);
+            }
+        });
+    }
+
+    // Shows the outcome of an export/import on the UI thread and refreshes the list if needed.
+    private void showTransferResult(final String message, final boolean reload) {
+        AppExecutors.mainThread().execute(new Runnable() {
+            @Override
+            public void run() {
+                Log.d(TAG, message);
+                Toast.makeText(ScoreboardActivity.this, message, Toast.LENGTH_SHORT).show();
+                if (reload && !isFinishing()) {
+                    loadScores(selectedDifficulty);
+                }
+            }
+        });
+    }
+
+    // Returns the epoch-millis start of the current week or month in the device's calendar.
+    private long getPeriodStart(int period) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (period == PERIOD_WEEK) {
+            calendar.set(Calendar.DAY_OF_WEEK, calendar.getFirstDayOfWeek());
+        } else {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        return calendar.getTimeInMillis();
+    }
+
+    // Shows the aggregated statistics row (a single lookup) in the header.
+    private void showStats(DifficultyStats stats) {
+        if (stats == null || stats.getGamesPlayed() == 0) {
+            tvStats.setText("No games played yet");
+            return;
+        }
+
+        String text = "Games: " + stats.getGamesPlayed()
+                + "   Win rate: " + Math.round(stats.getWinRate() * 100) + "%";
+        if (stats.getWins() > 0) {
+            text += "\nBest: " + Score.formatSeconds(stats.getBestTime()) + "s"
+                    + "   Average: " + String.format("%.1f", stats.getAverageTime() / 1000) + "s"
+                    + " (±" + String.format("%.1f", stats.getTimeStdDev() / 1000) + ")";
+        }
+        text += "\nStreak: " + stats.getCurrentStreak() + "   Best streak: " + stats.getBestStreak();
+        tvStats.setText(text);
+        Log.d(TAG, "showStats: " + text.replace('\n', ' '));
     }
 }
@@ -0,0 +1,183 @@
+package com.example.minesweeper;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.ImageView;
+
+/**
+ * SpriteAnimator
+ * --------------
+ * Plays a frame-by-frame animation (the win / loss sprites) on an ImageView.
+ *
+ *  - Frames are decoded once, off the main thread, and downsampled to the
+ *    size of the view. Decoded bitmaps live in a shared, byte-bounded
+ *    {@link LruCache}, so a second game reuses them. Each animator wraps
+ *    its frames in drawables once, when they are decoded.
+ *  - Playback is driven by the display's {@link Choreographer} frame
+ *    callback. The animator itself is the callback, and the current frame
+ *    is derived from the frame time, so playback does no decoding and no
+ *    allocation per frame.
+ */
+public class SpriteAnimator implements Choreographer.FrameCallback {
+
+    private static final String TAG = "SpriteAnimator";
+
+    /** Decoded frames shared by all animators, keyed by drawable resource id */
+    private static final LruCache<Integer, Bitmap> CACHE =
+            new LruCache<Integer, Bitmap>((int) Math.min(Runtime.getRuntime().maxMemory() / 16, 32L * 1024 * 1024)) {
+                @Override
+                protected int sizeOf(Integer key, Bitmap value) {
+                    return value.getByteCount();
+                }
+            };
+
+    private final ImageView view;
+    private final int[] frameIds;
+    private final BitmapDrawable[] frames; // Wrapped once, so showing a frame allocates nothing
+    private final long frameDurationNanos;
+    private final long holdLastFrameNanos;
+    private final boolean loop;
+
+    private volatile boolean decoded = false;
+    private boolean running = false;
+    private long startTimeNanos = -1;
+    private int shownFrame = -1;
+
+    /**
+     * @param view              The ImageView to draw into.
+     * @param frameIds          Drawable resource ids of the frames, in order.
+     * @param frameDurationMs   How long each frame is shown.
+     * @param loop              Whether to loop until {@link #stop()} is called.
+     * @param holdLastFrameMs   For non-looping animations: how long the last frame
+     *                          stays visible before the view is hidden.
+     */
+    public SpriteAnimator(ImageView view, int[] frameIds, long frameDurationMs,
+                          boolean loop, long holdLastFrameMs) {
+        this.view = view;
+        this.frameIds = frameIds;
+        this.frames = new BitmapDrawable[frameIds.length];
+        this.frameDurationNanos = frameDurationMs * 1_000_000L;
+        this.holdLastFrameNanos = holdLastFrameMs * 1_000_000L;
+        this.loop = loop;
+    }
+
+    /**
+     * Decodes all frames on a background thread, downsampled to the given size.
+     * Frames already in the cache are not decoded again.
+     */
+    public void preload(final Resources resources, final int targetWidth, final int targetHeight) {
+        AppExecutors.io().execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                for (int i = 0; i < frameIds.length; i++) {
+                    Bitmap bitmap = loadFrame(resources, frameIds[i], targetWidth, targetHeight);
+                    frames[i] = bitmap != null ? new BitmapDrawable(resources, bitmap) : null;
+                }
+                decoded = true;
+                Log.d(TAG, "Decoded " + frameIds.length + " frames in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        });
+    }
+
+    private static Bitmap loadFrame(Resources resources, int resId, int targetWidth, int targetHeight) {
+        synchronized (CACHE) {
+            Bitmap cached = CACHE.get(resId);
+            if (cached != null) return cached;
+        }
+
+        // Read the dimensions only, then decode at the smallest power-of-two
+        // scale that still covers the view
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+
+        if (bitmap != null) {
+            synchronized (CACHE) {
+                CACHE.put(resId, bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    private static int computeSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) return sampleSize;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /** Shows the view and starts playing from the first frame. */
+    public void start() {
+        stop();
+        running = true;
+        startTimeNanos = -1;
+        shownFrame = -1;
+        view.setVisibility(View.VISIBLE);
+        view.bringToFront();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /** Stops playback and hides the view. */
+    public void stop() {
+        if (running) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            running = false;
+        }
+        view.setVisibility(View.GONE);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        if (startTimeNanos < 0) startTimeNanos = frameTimeNanos;
+
+        long elapsed = frameTimeNanos - startTimeNanos;
+        int index = (int) (elapsed / frameDurationNanos);
+
+        if (index >= frames.length) {
+            if (loop) {
+                index %= frames.length;
+            } else if (elapsed >= frames.length * frameDurationNanos + holdLastFrameNanos) {
+                // Finished, including the time the last frame is held
+                running = false;
+                view.setVisibility(View.GONE);
+                return;
+            } else {
+                index = frames.length - 1;
+            }
+        }
+
+        if (index != shownFrame) {
+            showFrame(index);
+            shownFrame = index;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void showFrame(int index) {
+        BitmapDrawable frame = decoded ? frames[index] : null;
+        if (frame != null) {
+            view.setImageDrawable(frame);
+        } else {
+            // Still decoding (animation started right after launch) — fall back to the resource
+            view.setImageResource(frameIds[index]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.minesweeper;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * StartupTrace
+ * ------------
+ * Measures startup spans of a screen and writes them to Logcat
+ * (tag "StartupTrace"), e.g.:
+ *
+ *   GameActivity: setContentView +4 ms
+ *   GameActivity: first frame +38 ms
+ *
+ * A trace starts at {@link #begin(String)} and records named steps as
+ * offsets from that point. {@link #endOnFirstDraw(View, Runnable)} records the moment
+ * the first frame with the given view is drawn, which is the point where
+ * the screen becomes visible and interactive. The time since the
+ * application process started is logged too, to see cold-start cost.
+ */
+public final class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    private final String name;
+    private final long startMillis;
+    private boolean finished = false;
+
+    private StartupTrace(String name) {
+        this.name = name;
+        this.startMillis = SystemClock.uptimeMillis();
+    }
+
+    /** Starts a new trace for the given screen. */
+    public static StartupTrace begin(String name) {
+        return new StartupTrace(name);
+    }
+
+    /** Logs the time from the start of the trace to this step. */
+    public void step(String label) {
+        Log.d(TAG, name + ": " + label + " +" + (SystemClock.uptimeMillis() - startMillis) + " ms");
+    }
+
+    /**
+     * Logs the end of the trace when the next frame containing the view is
+     * drawn, then runs {@code afterFirstDraw} (if not null) on the UI thread.
+     */
+    public void endOnFirstDraw(final View view, final Runnable afterFirstDraw) {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        view.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                if (finished) return;
+                finished = true;
+                long now = SystemClock.uptimeMillis();
+                Log.d(TAG, name + ": first frame +" + (now - startMillis) + " ms"
+                        + " (" + (now - Process.getStartUptimeMillis()) + " ms since process start)");
+
+                // Listeners can't be removed from inside onDraw
+                final ViewTreeObserver.OnDrawListener self = this;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (view.getViewTreeObserver().isAlive()) {
+                            view.getViewTreeObserver().removeOnDrawListener(self);
+                        }
+                        if (afterFirstDraw != null) afterFirstDraw.run();
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.minesweeper;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * TapHeatmap
+ * ----------
+ * Per-difficulty counters of where players click, stored in the
+ * "tap_heatmaps" table. For every cell of the board it counts:
+ *  - first clicks (does a corner or the center start better?)
+ *  - deaths (which cells players lose on)
+ *  - flags placed
+ *
+ * Each histogram is one int per cell, stored as a little-endian blob, so a
+ * row has a fixed size (about 6 KB on Hard) no matter how many games have
+ * been played. New counts are collected in memory by {@link TapHeatmapRecorder}
+ * and folded in with {@link #merge}.
+ */
+@Entity(tableName = "tap_heatmaps")
+public class TapHeatmap {
+
+    @PrimaryKey
+    @NonNull
+    private String difficulty;
+    private int boardRows;
+    private int boardCols;
+    private int games;          // Games whose first click was counted
+    private byte[] firstClicks; // One little-endian int per cell (row-major)
+    private byte[] deaths;
+    private byte[] flags;
+
+    // Constructor — used by Room when reading a row
+    public TapHeatmap(@NonNull String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Adds counts collected in memory. If the stored histograms were made
+     * for another board size they are started over.
+     */
+    public void merge(int rows, int cols, int newGames, int[] newFirstClicks, int[] newDeaths, int[] newFlags) {
+        int cells = rows * cols;
+        if (rows != boardRows || cols != boardCols) {
+            boardRows = rows;
+            boardCols = cols;
+            games = 0;
+            firstClicks = deaths = flags = null;
+        }
+        games += newGames;
+        firstClicks = encode(addInto(decode(firstClicks, cells), newFirstClicks));
+        deaths = encode(addInto(decode(deaths, cells), newDeaths));
+        flags = encode(addInto(decode(flags, cells), newFlags));
+    }
+
+    /**
+     * Element-wise {@code target += delta}. A plain counted loop with no
+     * branches or calls, so the JIT can vectorize it.
+     */
+    static int[] addInto(int[] target, int[] delta) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += delta[i];
+        }
+        return target;
+    }
+
+    /** Unpacks a blob into one int per cell; a missing or wrong-sized blob reads as zeros. */
+    static int[] decode(byte[] blob, int cells) {
+        int[] counts = new int[cells];
+        if (blob != null && blob.length == cells * 4) {
+            ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(counts);
+        }
+        return counts;
+    }
+
+    static byte[] encode(int[] counts) {
+        ByteBuffer buffer = ByteBuffer.allocate(counts.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(counts);
+        return buffer.array();
+    }
+
+    /** Counts of the given histogram blob (e.g. {@link #getDeaths()}), one per cell. */
+    public int[] counts(byte[] blob) {
+        return decode(blob, boardRows * boardCols);
+    }
+
+    // --- Getters and Setters (used by Room) ---
+    @NonNull
+    public String getDifficulty() {return difficulty;}
+    public int getBoardRows() {return boardRows;}
+    public int getBoardCols() {return boardCols;}
+    public int getGames() {return games;}
+    public byte[] getFirstClicks() {return firstClicks;}
+    public byte[] getDeaths() {return deaths;}
+    public byte[] getFlags() {return flags;}
+
+    public void setDifficulty(@NonNull String difficulty) {this.difficulty = difficulty;}
+    public void setBoardRows(int boardRows) {this.boardRows = boardRows;}
+    public void setBoardCols(int boardCols) {this.boardCols = boardCols;}
+    public void setGames(int games) {this.games = games;}
+    public void setFirstClicks(byte[] firstClicks) {this.firstClicks = firstClicks;}
+    public void setDeaths(byte[] deaths) {this.deaths = deaths;}
+    public void setFlags(byte[] flags) {this.flags = flags;}
+}
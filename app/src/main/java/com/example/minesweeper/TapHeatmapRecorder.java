@@ -0,0 +1,160 @@
+package com.example.minesweeper;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * TapHeatmapRecorder
+ * ------------------
+ * Collects first clicks, deaths and flags per difficulty and cell (see
+ * {@link TapHeatmap}) without storing individual events.
+ *
+ * Counting is an array increment on the UI thread. The in-memory counts
+ * are written to the database in one transaction every {@link #FLUSH_GAMES}
+ * games, and when {@link #flush()} is called (e.g. when the game screen goes
+ * to the background). Memory use is one set of arrays per difficulty,
+ * whatever the number of games.
+ *
+ * This is telemetry: counts not yet flushed when the process dies are lost.
+ */
+public class TapHeatmapRecorder {
+
+    private static final String TAG = "TapHeatmapRecorder";
+
+    /** Games counted in memory before they are written out */
+    static final int FLUSH_GAMES = 20;
+
+    /** The single static instance of the recorder (singleton). */
+    private static TapHeatmapRecorder instance;
+
+    /** Counts of one difficulty not yet written to the database. */
+    private static final class Pending {
+        final int rows, cols;
+        final int[] firstClicks, deaths, flags;
+        int games;
+
+        Pending(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.firstClicks = new int[rows * cols];
+            this.deaths = new int[rows * cols];
+            this.flags = new int[rows * cols];
+        }
+    }
+
+    private final MinesweeperApp app; // The database is only opened by the first write
+
+    // Guarded by this
+    private Map<String, Pending> pending = new HashMap<>();
+    private int pendingGames;
+
+    private TapHeatmapRecorder(Context context) {
+        this.app = (MinesweeperApp) context;
+    }
+
+    /**
+     * Returns the singleton recorder.
+     *
+     * @param context Any context; the application context is used.
+     */
+    public static synchronized TapHeatmapRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new TapHeatmapRecorder(context.getApplicationContext());
+            Log.d(TAG, "TapHeatmapRecorder created.");
+        }
+        return instance;
+    }
+
+    /** Counts the first click of a game (and the game itself). */
+    public void recordFirstClick(String difficulty, int rows, int cols, int row, int col) {
+        boolean flushNow;
+        synchronized (this) {
+            Pending counts = countsFor(difficulty, rows, cols);
+            counts.firstClicks[row * cols + col]++;
+            counts.games++;
+            flushNow = ++pendingGames >= FLUSH_GAMES;
+        }
+        if (flushNow) flush();
+    }
+
+    /** Counts the bomb a game was lost on. */
+    public synchronized void recordDeath(String difficulty, int rows, int cols, int row, int col) {
+        countsFor(difficulty, rows, cols).deaths[row * cols + col]++;
+    }
+
+    /** Counts a flag being placed. */
+    public synchronized void recordFlag(String difficulty, int rows, int cols, int row, int col) {
+        countsFor(difficulty, rows, cols).flags[row * cols + col]++;
+    }
+
+    private Pending countsFor(String difficulty, int rows, int cols) {
+        Pending counts = pending.get(difficulty);
+        if (counts == null || counts.rows != rows || counts.cols != cols) {
+            // A new difficulty, or its board size changed (older counts are for another layout)
+            counts = new Pending(rows, cols);
+            pending.put(difficulty, counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Merges the in-memory counts into the database in the background.
+     */
+    public void flush() {
+        final Map<String, Pending> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+            pendingGames = 0;
+        }
+        // Each merge adds its counts in one transaction, so batches may land in
+        // any order (a board-size change restarts the counts either way)
+        AppExecutors.io().execute(new Runnable() {
+            @Override
+            public void run() {
+                write(batch);
+            }
+        });
+    }
+
+    /** Folds a batch into the stored heatmaps in one transaction. Runs on an io thread. */
+    private void write(final Map<String, Pending> batch) {
+        final ScoreDatabase db;
+        try {
+            db = app.awaitDatabase();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Database could not be opened", e);
+            return;
+        }
+
+        try {
+            db.runInTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    ScoreDao dao = db.scoreDao();
+                    for (Map.Entry<String, Pending> entry : batch.entrySet()) {
+                        Pending counts = entry.getValue();
+                        TapHeatmap heatmap = dao.getHeatmap(entry.getKey());
+                        if (heatmap == null) {
+                            heatmap = new TapHeatmap(entry.getKey());
+                        }
+                        heatmap.merge(counts.rows, counts.cols, counts.games,
+                                counts.firstClicks, counts.deaths, counts.flags);
+                        dao.upsertHeatmap(heatmap);
+                    }
+                }
+            });
+            Log.d(TAG, "Merged heatmaps of " + batch.size() + " difficulties.");
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Writing heatmaps failed", e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BitBoardTest
+ * ------------
+ * The bitplane flood ({@link BitBoard}) must play exactly like the
+ * queue-based one: the same seeded sequence of reveals, flags and chords
+ * is applied to two games of the same board, one with bitplanes and one
+ * without, and after every move their boards, revealed counts, changed
+ * cells and position hashes must match.
+ */
+public class BitBoardTest {
+
+    private static final int MOVES = 400;
+
+    /** Shapes: word-aligned, ragged last word, one row or column, and above the size threshold */
+    private static final int[][] SHAPES = {
+            {64, 64}, {40, 50}, {65, 129}, {1, 300}, {300, 1}, {256, 256}, {130, 700}
+    };
+
+    private static byte[] write(MinesweeperGame game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            game.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int[] changedCells(MinesweeperGame game) {
+        int[] cells = Arrays.copyOf(game.getChangedCells(), game.getChangedCellCount());
+        Arrays.sort(cells); // Both are breadth-first, but may order a layer differently
+        return cells;
+    }
+
+    private static void assertSameState(String move, MinesweeperGame bits, MinesweeperGame queue)
+            throws IOException {
+        // The serialized form holds the packed board, the revealed count and the click count
+        assertArrayEquals(move, write(queue), write(bits));
+        assertArrayEquals(move, changedCells(queue), changedCells(bits));
+        assertEquals(move, queue.getPositionHash(), bits.getPositionHash());
+        assertEquals(move, queue.isGameOver(), bits.isGameOver());
+        assertEquals(move, queue.checkWin(), bits.checkWin());
+    }
+
+    @Test
+    public void floodsMatchTheQueue() throws IOException {
+        int[] totals = new int[2];
+        for (int[] shape : SHAPES) {
+            for (double density : new double[]{0.04, 0.15}) {
+                int[] counts = play(shape[0], shape[1], (int) (shape[0] * shape[1] * density), 17);
+                totals[0] += counts[0];
+                totals[1] += counts[1];
+            }
+        }
+        // The sequences must actually have exercised floods and chords
+        assertTrue("floods " + totals[0], totals[0] >= SHAPES.length);
+        assertTrue("chords " + totals[1], totals[1] >= SHAPES.length);
+    }
+
+    @Test
+    public void defaultChoiceFollowsTheThreshold() {
+        // Same board, same first move: the size-based choice must not change the game
+        MinesweeperGame automatic = new MinesweeperGame(256, 256, 3000, 5);
+        MinesweeperGame queue = new MinesweeperGame(256, 256, 3000, 5, BoardTopology.SQUARE, false);
+        automatic.revealCell(128, 128);
+        queue.revealCell(128, 128);
+        assertEquals(queue.getPositionHash(), automatic.getPositionHash());
+        assertTrue(automatic.estimateMemoryBytes() > queue.estimateMemoryBytes()); // It has bitplanes
+    }
+
+    /**
+     * Plays the same random moves on both games, resetting both whenever a game ends.
+     * @return The number of floods and of chords that revealed cells.
+     */
+    private static int[] play(int rows, int cols, int bombs, long seed) throws IOException {
+        MinesweeperGame bits = new MinesweeperGame(rows, cols, bombs, seed, BoardTopology.SQUARE, true);
+        MinesweeperGame queue = new MinesweeperGame(rows, cols, bombs, seed, BoardTopology.SQUARE, false);
+        SplittableRandom random = new SplittableRandom(seed);
+        String board = rows + "x" + cols + " with " + bombs + " bombs";
+        int[] pairs = new int[16];
+        int floods = 0, chords = 0;
+
+        for (int i = 0; i < MOVES; i++) {
+            if (queue.isGameOver() || queue.checkWin()) {
+                long next = random.nextLong();
+                bits.reset(next);
+                queue.reset(next);
+                assertSameState(board + " reset " + i, bits, queue);
+            }
+
+            int row = random.nextInt(rows), col = random.nextInt(cols);
+            int kind = random.nextInt(4);
+            String move;
+            if (kind <= 1) {
+                // Reveal; mostly avoid bombs, so games get far enough for big floods
+                if (queue.isBomb(row, col) && !queue.isFirstMove() && random.nextInt(10) != 0) continue;
+                move = "reveal";
+                assertEquals(queue.revealCell(row, col), bits.revealCell(row, col));
+                if (queue.getChangedCellCount() > 1) floods++;
+            } else if (kind == 2) {
+                // Flag, mostly on bombs; sometimes a wrong flag that a chord will hit
+                if (!queue.isBomb(row, col) && random.nextInt(4) != 0) continue;
+                boolean flagged = !queue.isFlagged(row, col);
+                move = flagged ? "flag" : "unflag";
+                queue.setFlagged(row, col, flagged);
+                bits.setFlagged(row, col, flagged);
+            } else {
+                // Chord on a revealed number after flagging all its bombs
+                if (!queue.isRevealed(row, col) || queue.isBomb(row, col)) continue;
+                int n = BoardTopology.SQUARE.neighbors(rows, cols, row, col, pairs);
+                for (int k = 0; k < n; k++) {
+                    int r = pairs[2 * k], c = pairs[2 * k + 1];
+                    if (queue.isBomb(r, c) && !queue.isRevealed(r, c)) {
+                        queue.setFlagged(r, c, true);
+                        bits.setFlagged(r, c, true);
+                    }
+                }
+                move = "chord";
+                assertEquals(queue.chordCell(row, col), bits.chordCell(row, col));
+                if (queue.getChangedCellCount() > 0) chords++;
+            }
+            assertSameState(board + " move " + i + " " + move + " (" + row + "," + col + ")", bits, queue);
+        }
+        return new int[]{floods, chords};
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * BoardGeneratorTest
+ * ------------------
+ * The parallel generator must match the sequential one (the deterministic
+ * reference) bit for bit, and every board must be valid: exactly the
+ * requested number of bombs, correct neighbor counts, and a bomb-free safe
+ * area. Neighbors are checked against {@link BoardTopology#neighbors}, not
+ * the adjacency table the generator uses.
+ */
+public class BoardGeneratorTest {
+
+    /** Shapes: tiny, stripes that don't divide the rows, 1-wide and 1-high, 2-wide */
+    private static final int[][] SHAPES = {
+            {8, 8}, {16, 30}, {1000, 1000}, {1001, 999}, {70_000, 1}, {1, 70_000}, {40_000, 2}, {4, 5}
+    };
+
+    private static byte[] generate(BoardTopology topology, int rows, int cols, int bombs, long seed,
+                                   int safeIndex, boolean parallel) {
+        byte[] cells = new byte[rows * cols];
+        BoardGenerator.generate(cells, topology.adjacency(rows, cols), bombs, seed, safeIndex, parallel);
+        return cells;
+    }
+
+    private static boolean isBomb(byte[] cells, int index) {
+        return (cells[index] & MinesweeperGame.BOMB) != 0;
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            for (int[] shape : SHAPES) {
+                int rows = shape[0], cols = shape[1];
+                int bombs = rows * cols / 6;
+                int safeIndex = (rows / 2) * cols + cols / 2;
+                for (long seed = 1; seed <= 3; seed++) {
+                    byte[] sequential = generate(topology, rows, cols, bombs, seed, safeIndex, false);
+                    byte[] parallel = generate(topology, rows, cols, bombs, seed, safeIndex, true);
+                    assertArrayEquals(topology + " " + rows + "x" + cols + " seed " + seed, sequential, parallel);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void boardsAreValid() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            for (int[] shape : SHAPES) {
+                int rows = shape[0], cols = shape[1];
+                int safeIndex = (rows / 3) * cols + cols / 3;
+                byte[] cells = generate(topology, rows, cols, rows * cols / 5, 42, safeIndex, true);
+                checkBoard(topology, rows, cols, cells, rows * cols / 5, safeIndex);
+            }
+        }
+    }
+
+    @Test
+    public void fullBoardLeavesOnlyTheSafeArea() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            int rows = 20, cols = 20, safeIndex = 0;
+            int[] pairs = new int[16];
+            int free = 1 + topology.neighbors(rows, cols, 0, 0, pairs);
+            byte[] cells = generate(topology, rows, cols, rows * cols - free, 7, safeIndex, false);
+            checkBoard(topology, rows, cols, cells, rows * cols - free, safeIndex);
+        }
+    }
+
+    @Test
+    public void seedChangesTheLayout() {
+        byte[] first = generate(BoardTopology.SQUARE, 100, 100, 1500, 1, -1, false);
+        byte[] second = generate(BoardTopology.SQUARE, 100, 100, 1500, 2, -1, false);
+        int differences = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (isBomb(first, i) != isBomb(second, i)) differences++;
+        }
+        assertNotEquals(0, differences);
+    }
+
+    @Test
+    public void tooManyBombsIsRejected() {
+        try {
+            generate(BoardTopology.SQUARE, 8, 8, 64 - 8, 1, 27, false); // 9 cells must stay free
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+    private static void checkBoard(BoardTopology topology, int rows, int cols, byte[] cells,
+                                   int bombs, int safeIndex) {
+        String name = topology + " " + rows + "x" + cols;
+        int[] pairs = new int[16];
+
+        int placed = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (isBomb(cells, i)) placed++;
+        }
+        assertEquals(name + " bomb count", bombs, placed);
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int index = row * cols + col;
+                if (isBomb(cells, index)) continue;
+                int n = topology.neighbors(rows, cols, row, col, pairs);
+                int expected = 0;
+                for (int k = 0; k < n; k++) {
+                    if (isBomb(cells, pairs[2 * k] * cols + pairs[2 * k + 1])) expected++;
+                }
+                assertEquals(name + " count at " + row + "," + col,
+                        expected, cells[index] & MinesweeperGame.COUNT_MASK);
+            }
+        }
+
+        int safeRow = safeIndex / cols, safeCol = safeIndex % cols;
+        assertFalse(name + " safe cell", isBomb(cells, safeIndex));
+        int n = topology.neighbors(rows, cols, safeRow, safeCol, pairs);
+        for (int k = 0; k < n; k++) {
+            assertFalse(name + " safe neighbor", isBomb(cells, pairs[2 * k] * cols + pairs[2 * k + 1]));
+        }
+    }
+}
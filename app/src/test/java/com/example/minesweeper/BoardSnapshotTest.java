@@ -0,0 +1,232 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BoardSnapshotTest
+ * -----------------
+ * Snapshots published by {@link MinesweeperGame}: one version per change,
+ * copy-on-write chunks (a move copies only the chunks it touched), and a
+ * full copy whenever the whole board changes.
+ */
+public class BoardSnapshotTest {
+
+    private static final int ROWS = 100, COLS = 100, BOMBS = 1500; // 10 chunks
+
+    private static int chunkOf(int row, int col) {
+        return (row * COLS + col) >>> BoardSnapshot.CHUNK_SHIFT;
+    }
+
+    /** A game whose first click at (row, col) is unsafe, so it regenerates the board. */
+    private static MinesweeperGame unsafeFirstClick(int row, int col) {
+        for (long seed = 1; ; seed++) {
+            MinesweeperGame game = new MinesweeperGame(ROWS, COLS, BOMBS, seed);
+            if (game.isBomb(row, col) || game.getNeighborBombs(row, col) > 0) return game;
+        }
+    }
+
+    /** A game past its first move, with snapshots enabled. */
+    private static MinesweeperGame startedGame() {
+        MinesweeperGame game = new MinesweeperGame(ROWS, COLS, BOMBS, 3);
+        game.revealCell(50, 50);
+        game.enableSnapshots();
+        return game;
+    }
+
+    /** Asserts that the snapshot shows exactly the game's cells; returns how many are revealed. */
+    private static int assertCellsMatch(MinesweeperGame game, BoardSnapshot snapshot) {
+        assertEquals(ROWS, snapshot.getRows());
+        assertEquals(COLS, snapshot.getCols());
+        assertEquals(game.isGameOver(), snapshot.isGameOver());
+        int revealed = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                String cell = "(" + row + "," + col + ")";
+                assertEquals(cell, game.isBomb(row, col), snapshot.isBomb(row, col));
+                assertEquals(cell, game.isRevealed(row, col), snapshot.isRevealed(row, col));
+                assertEquals(cell, game.isFlagged(row, col), snapshot.isFlagged(row, col));
+                assertEquals(cell, game.getNeighborBombs(row, col), snapshot.getNeighborBombs(row, col));
+                if (game.isRevealed(row, col)) revealed++;
+            }
+        }
+        return revealed;
+    }
+
+    private static void assertMatches(MinesweeperGame game, BoardSnapshot snapshot) {
+        assertEquals(assertCellsMatch(game, snapshot), snapshot.getRevealedCells());
+    }
+
+    /** Asserts that every chunk of {@code after} is a new copy. */
+    private static void assertAllCopied(BoardSnapshot before, BoardSnapshot after) {
+        for (int chunk = 0; chunk < before.chunks().length; chunk++) {
+            assertNotSame("chunk " + chunk, before.chunks()[chunk], after.chunks()[chunk]);
+        }
+    }
+
+    /** Finds a hidden safe number cell: revealing it changes that one cell only. */
+    private static int[] hiddenNumber(MinesweeperGame game) {
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                if (!game.isRevealed(row, col) && !game.isFlagged(row, col) && !game.isBomb(row, col)
+                        && game.getNeighborBombs(row, col) > 0) {
+                    return new int[]{row, col};
+                }
+            }
+        }
+        throw new AssertionError("no hidden number");
+    }
+
+    @Test
+    public void disabledUntilEnabled() {
+        MinesweeperGame game = new MinesweeperGame(ROWS, COLS, BOMBS, 1);
+        assertNull(game.getSnapshot());
+
+        game.enableSnapshots();
+        BoardSnapshot first = game.getSnapshot();
+        assertNotNull(first);
+        assertEquals(0, first.getVersion());
+        assertEquals(BoardSnapshot.chunkCount(ROWS * COLS), first.chunks().length);
+        assertMatches(game, first);
+
+        game.enableSnapshots(); // Already enabled: nothing is published
+        assertSame(first, game.getSnapshot());
+    }
+
+    @Test
+    public void flagCopiesOnlyItsChunk() {
+        MinesweeperGame game = startedGame();
+        int[] cell = hiddenNumber(game);
+        BoardSnapshot before = game.getSnapshot();
+
+        game.setFlagged(cell[0], cell[1], true);
+        BoardSnapshot after = game.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        int dirty = chunkOf(cell[0], cell[1]);
+        for (int chunk = 0; chunk < before.chunks().length; chunk++) {
+            if (chunk == dirty) {
+                assertNotSame(before.chunks()[chunk], after.chunks()[chunk]);
+            } else {
+                assertSame("chunk " + chunk, before.chunks()[chunk], after.chunks()[chunk]);
+            }
+        }
+        assertTrue(after.isFlagged(cell[0], cell[1]));
+        assertFalse(before.isFlagged(cell[0], cell[1])); // Published snapshots never change
+        assertMatches(game, after);
+    }
+
+    @Test
+    public void revealCopiesOnlyTouchedChunks() {
+        MinesweeperGame game = startedGame();
+        int[] cell = hiddenNumber(game);
+        BoardSnapshot before = game.getSnapshot();
+
+        game.revealCell(cell[0], cell[1]);
+        BoardSnapshot after = game.getSnapshot();
+
+        assertEquals(1, game.getChangedCellCount());
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        int dirty = chunkOf(cell[0], cell[1]);
+        for (int chunk = 0; chunk < before.chunks().length; chunk++) {
+            assertEquals("chunk " + chunk, chunk == dirty, before.chunks()[chunk] != after.chunks()[chunk]);
+        }
+        assertFalse(before.isRevealed(cell[0], cell[1]));
+        assertEquals(before.getRevealedCells() + 1, after.getRevealedCells());
+        assertMatches(game, after);
+    }
+
+    @Test
+    public void movesThatChangeNothingPublishNothing() {
+        MinesweeperGame game = startedGame();
+        BoardSnapshot before = game.getSnapshot();
+
+        game.revealCell(50, 50);             // Already revealed
+        game.chordCell(0, 0);                // Not a revealed number with matching flags
+        int[] cell = hiddenNumber(game);
+        game.setFlagged(cell[0], cell[1], false); // Not flagged
+
+        assertSame(before, game.getSnapshot());
+    }
+
+    @Test
+    public void versionIncreasesByOnePerChange() {
+        MinesweeperGame game = startedGame();
+        long version = game.getSnapshot().getVersion();
+        for (int i = 0; i < 5; i++) {
+            int[] cell = hiddenNumber(game);
+            game.setFlagged(cell[0], cell[1], true);
+            assertEquals(++version, game.getSnapshot().getVersion());
+            game.setFlagged(cell[0], cell[1], false);
+            assertEquals(++version, game.getSnapshot().getVersion());
+            game.revealCell(cell[0], cell[1]);
+            assertEquals(++version, game.getSnapshot().getVersion());
+        }
+        assertMatches(game, game.getSnapshot());
+    }
+
+    @Test
+    public void regenerationPublishesEveryChunk() {
+        MinesweeperGame game = unsafeFirstClick(50, 50);
+        game.enableSnapshots();
+        game.setFlagged(0, 0, true);
+        game.setFlagged(ROWS - 1, COLS - 1, true);
+        BoardSnapshot before = game.getSnapshot();
+
+        game.revealCell(50, 50);
+        BoardSnapshot after = game.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertAllCopied(before, after);
+        assertFalse(after.isFlagged(0, 0)); // The regeneration cleared the flags
+        assertFalse(after.isBomb(50, 50));
+        assertTrue(after.isRevealed(50, 50));
+        assertMatches(game, after);
+    }
+
+    @Test
+    public void resetPublishesEveryChunk() {
+        MinesweeperGame game = startedGame();
+        BoardSnapshot before = game.getSnapshot();
+
+        game.reset(99);
+        BoardSnapshot after = game.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertAllCopied(before, after);
+        assertEquals(0, after.getRevealedCells());
+        assertMatches(game, after);
+
+        // The next move is incremental again
+        game.revealCell(10, 10);
+        assertEquals(after.getVersion() + 1, game.getSnapshot().getVersion());
+        assertMatches(game, game.getSnapshot());
+    }
+
+    @Test
+    public void revealAllPublishesEveryChunk() {
+        MinesweeperGame game = startedGame();
+        BoardSnapshot before = game.getSnapshot();
+
+        game.revealAll();
+        BoardSnapshot after = game.getSnapshot();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertAllCopied(before, after);
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                assertTrue(after.isRevealed(row, col));
+            }
+        }
+        // revealAll only shows the board; the count of cells the player revealed stays
+        assertCellsMatch(game, after);
+        assertEquals(before.getRevealedCells(), after.getRevealedCells());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BoardTopologyTest
+ * -----------------
+ * Neighbor rules of each topology, and the compact {@link BoardTopology.Adjacency}
+ * tables built from them: every cell's class must give exactly its neighbors.
+ */
+public class BoardTopologyTest {
+
+    /** Neighbors of (row, col) from the table, as sorted row-major indices. */
+    private static int[] tableNeighbors(BoardTopology.Adjacency adjacency, int row, int col) {
+        int index = row * adjacency.cols + col;
+        int cls = adjacency.classOfIndex(index);
+        int[] result = new int[adjacency.classStart[cls + 1] - adjacency.classStart[cls]];
+        for (int k = adjacency.classStart[cls]; k < adjacency.classStart[cls + 1]; k++) {
+            result[k - adjacency.classStart[cls]] = index + adjacency.offsets[k];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Neighbors of (row, col) from the topology rules, as sorted row-major indices. */
+    private static int[] ruleNeighbors(BoardTopology topology, int rows, int cols, int row, int col) {
+        int[] pairs = new int[16];
+        int n = topology.neighbors(rows, cols, row, col, pairs);
+        int[] result = new int[n];
+        for (int k = 0; k < n; k++) {
+            result[k] = pairs[2 * k] * cols + pairs[2 * k + 1];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int[] indices(int cols, int... rowColPairs) {
+        int[] result = new int[rowColPairs.length / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = rowColPairs[2 * i] * cols + rowColPairs[2 * i + 1];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Test
+    public void tableMatchesRulesForEveryCell() {
+        int[][] shapes = {{1, 1}, {1, 5}, {5, 1}, {2, 2}, {2, 7}, {7, 2}, {3, 3}, {6, 9}, {9, 6}};
+        for (BoardTopology topology : BoardTopology.values()) {
+            for (int[] shape : shapes) {
+                int rows = shape[0], cols = shape[1];
+                BoardTopology.Adjacency adjacency = topology.adjacency(rows, cols);
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        int[] expected = ruleNeighbors(topology, rows, cols, row, col);
+                        int[] actual = tableNeighbors(adjacency, row, col);
+                        String cell = topology + " " + rows + "x" + cols + " (" + row + "," + col + ")";
+                        assertArrayEquals(cell, expected, actual);
+
+                        // Never the cell itself, never the same neighbor twice
+                        Set<Integer> unique = new HashSet<>();
+                        for (int neighbor : actual) {
+                            assertNotEquals(cell, row * cols + col, neighbor);
+                            assertTrue(cell, unique.add(neighbor));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void torusDeduplicatesNarrowBoards() {
+        // 1 wide: left and right wrap onto the cell itself, only up and down remain
+        BoardTopology.Adjacency oneWide = BoardTopology.TORUS.adjacency(5, 1);
+        assertArrayEquals(indices(1, 1, 0, 3, 0), tableNeighbors(oneWide, 2, 0));
+        assertArrayEquals(indices(1, 4, 0, 1, 0), tableNeighbors(oneWide, 0, 0));
+
+        // 1x1: no neighbors at all
+        assertEquals(0, tableNeighbors(BoardTopology.TORUS.adjacency(1, 1), 0, 0).length);
+
+        // 2 wide: left and right are the same cell, counted once
+        BoardTopology.Adjacency twoWide = BoardTopology.TORUS.adjacency(4, 2);
+        assertArrayEquals(indices(2, 0, 0, 0, 1, 1, 1, 2, 0, 2, 1), tableNeighbors(twoWide, 1, 0));
+
+        // 2x2: every other cell exactly once
+        assertArrayEquals(indices(2, 0, 1, 1, 0, 1, 1),
+                tableNeighbors(BoardTopology.TORUS.adjacency(2, 2), 0, 0));
+    }
+
+    @Test
+    public void hexUsesOddRowOffsets() {
+        BoardTopology.Adjacency adjacency = BoardTopology.HEX.adjacency(6, 6);
+
+        // Even row: diagonal neighbors at col - 1 and col
+        assertArrayEquals(indices(6, 2, 1, 2, 3, 1, 1, 1, 2, 3, 1, 3, 2), tableNeighbors(adjacency, 2, 2));
+        // Odd row (shifted right): diagonal neighbors at col and col + 1
+        assertArrayEquals(indices(6, 1, 1, 1, 3, 0, 2, 0, 3, 2, 2, 2, 3), tableNeighbors(adjacency, 1, 2));
+
+        // Row parity is part of the class; rows of the same parity share it
+        assertNotEquals(adjacency.classOf(1, 2), adjacency.classOf(2, 2));
+        assertEquals(adjacency.classOf(2, 2), adjacency.classOf(4, 2));
+        assertEquals(adjacency.classOf(1, 2), adjacency.classOf(3, 2));
+
+        // Edges: an even row's left cell and an odd row's right cell lose both
+        // diagonals on that side, the other way round only the side neighbor
+        assertEquals(3, tableNeighbors(adjacency, 2, 0).length);
+        assertEquals(3, tableNeighbors(adjacency, 1, 5).length);
+        assertEquals(5, tableNeighbors(adjacency, 1, 0).length);
+        assertEquals(5, tableNeighbors(adjacency, 2, 5).length);
+    }
+
+    @Test
+    public void classOfIndexSeparatesEdges() {
+        int rows = 5, cols = 6;
+        BoardTopology.Adjacency adjacency = BoardTopology.SQUARE.adjacency(rows, cols);
+
+        Set<Integer> corners = new HashSet<>(Arrays.asList(
+                adjacency.classOfIndex(0), adjacency.classOfIndex(cols - 1),
+                adjacency.classOfIndex((rows - 1) * cols), adjacency.classOfIndex(rows * cols - 1)));
+        assertEquals(4, corners.size());
+
+        int interior = adjacency.classOf(1, 1);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cls = adjacency.classOfIndex(row * cols + col);
+                assertEquals(adjacency.classOf(row, col), cls);
+
+                boolean edge = row == 0 || row == rows - 1 || col == 0 || col == cols - 1;
+                assertEquals(!edge, cls == interior);
+                int expected = edge ? (corners.contains(cls) ? 3 : 5) : 8;
+                assertEquals(expected, tableNeighbors(adjacency, row, col).length);
+            }
+        }
+
+        // A single row is both the first and the last row
+        BoardTopology.Adjacency line = BoardTopology.SQUARE.adjacency(1, 4);
+        assertEquals(1, tableNeighbors(line, 0, 0).length);
+        assertEquals(2, tableNeighbors(line, 0, 2).length);
+        assertFalse(line.classOfIndex(0) == line.classOfIndex(1));
+    }
+}
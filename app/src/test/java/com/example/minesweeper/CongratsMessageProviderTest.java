@@ -0,0 +1,139 @@
+package com.example.minesweeper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CongratsMessageProviderTest
+ * ---------------------------
+ * The win dialog's title with local stand-ins for Gemini (through
+ * {@link CongratsMessageProvider#setSource}): prefetched messages are served
+ * in order, and a slow, failing or empty source falls back to a local
+ * message without ever making {@link CongratsMessageProvider#next()} wait.
+ */
+public class CongratsMessageProviderTest {
+
+    private static final long DEADLINE_MS = 200;
+
+    private CongratsMessageProvider provider;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        provider = new CongratsMessageProvider(new CountingSource(), DEADLINE_MS);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        provider.shutdown();
+    }
+
+    /** Returns "Message 1", "Message 2", ... */
+    private static class CountingSource implements CongratsMessageProvider.MessageSource {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String generate() {
+            return "Message " + calls.incrementAndGet();
+        }
+    }
+
+    /** Blocks until the test ends, ignoring interrupts like a stuck network call. */
+    private class StuckSource implements CongratsMessageProvider.MessageSource {
+        @Override
+        public String generate() {
+            while (true) {
+                try {
+                    release.await();
+                    return "Too late";
+                } catch (InterruptedException ignored) {
+                    // Keep blocking
+                }
+            }
+        }
+    }
+
+    private static void assertFallback(String message) {
+        assertTrue(message, Arrays.asList(CongratsMessageProvider.FALLBACK_MESSAGES).contains(message));
+    }
+
+    @Test
+    public void prefetchedMessagesAreServedInOrder() throws Exception {
+        CountingSource source = new CountingSource();
+        provider.setSource(source);
+        provider.prefetch();
+        provider.awaitRefill();
+        assertEquals(CongratsMessageProvider.POOL_SIZE, source.calls.get());
+
+        // Each message taken is replaced in the background
+        for (int i = 1; i <= 2 * CongratsMessageProvider.POOL_SIZE; i++) {
+            assertEquals("Message " + i, provider.next());
+            provider.awaitRefill();
+        }
+        assertEquals(3 * CongratsMessageProvider.POOL_SIZE, source.calls.get());
+    }
+
+    @Test
+    public void emptyPoolFallsBack() throws Exception {
+        provider.setSource(new CongratsMessageProvider.MessageSource() {
+            @Override
+            public String generate() throws Exception {
+                throw new Exception("offline");
+            }
+        });
+        assertFallback(provider.next());
+        provider.awaitRefill();
+        assertFallback(provider.next());
+
+        provider.setSource(new CongratsMessageProvider.MessageSource() {
+            @Override
+            public String generate() {
+                return "  ";
+            }
+        });
+        provider.awaitRefill();
+        assertFallback(provider.next());
+    }
+
+    @Test
+    public void missedDeadlineFallsBackAndFreesTheGenerator() throws Exception {
+        provider.setSource(new StuckSource());
+        long start = System.nanoTime();
+        provider.prefetch();
+        provider.awaitRefill();
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("waited " + waitedMs + " ms", waitedMs < 10 * DEADLINE_MS); // One call, then the refill stops
+        assertFallback(provider.next());
+
+        // The stuck call still holds its thread; the next refill must not queue behind it
+        provider.awaitRefill();
+        CountingSource source = new CountingSource();
+        provider.setSource(source);
+        provider.prefetch();
+        provider.awaitRefill();
+        assertEquals(CongratsMessageProvider.POOL_SIZE, source.calls.get());
+        assertEquals("Message 1", provider.next());
+    }
+
+    @Test
+    public void newSourceDropsPooledMessages() throws Exception {
+        provider.prefetch();
+        provider.awaitRefill();
+        provider.setSource(new CongratsMessageProvider.MessageSource() {
+            @Override
+            public String generate() throws Exception {
+                throw new Exception("offline");
+            }
+        });
+        assertFallback(provider.next());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * EndlessMinesweeperGameTest
+ * --------------------------
+ * Engine tests of the endless mode: chunk layouts are a pure function of the
+ * seed, and the first reveal is always safe.
+ */
+public class EndlessMinesweeperGameTest {
+
+    private static final double DENSITY = 0.2;
+    private static final int AREA = 3 * EndlessMinesweeperGame.CHUNK_SIZE; // Spans several chunks, both signs
+
+    /** Mine layout of the square around the origin, before any move. */
+    private static boolean[] layout(EndlessMinesweeperGame game) {
+        boolean[] bombs = new boolean[4 * AREA * AREA];
+        int i = 0;
+        for (int y = -AREA; y < AREA; y++) {
+            for (int x = -AREA; x < AREA; x++) {
+                bombs[i++] = game.isBomb(x, y);
+            }
+        }
+        return bombs;
+    }
+
+    @Test
+    public void sameSeedGivesSameChunks() {
+        boolean[] first = layout(new EndlessMinesweeperGame(42, DENSITY));
+
+        // Visit the chunks in another order, and regenerate them after a trim
+        EndlessMinesweeperGame other = new EndlessMinesweeperGame(42, DENSITY);
+        for (int y = AREA - 1; y >= -AREA; y--) {
+            for (int x = AREA - 1; x >= -AREA; x--) {
+                other.isBomb(x, y);
+            }
+        }
+        other.trimMemory();
+        boolean[] second = layout(other);
+
+        for (int i = 0; i < first.length; i++) {
+            assertEquals("cell " + i, first[i], second[i]);
+        }
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentChunks() {
+        boolean[] first = layout(new EndlessMinesweeperGame(42, DENSITY));
+        boolean[] second = layout(new EndlessMinesweeperGame(43, DENSITY));
+        int differences = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] != second[i]) differences++;
+        }
+        assertNotEquals(0, differences);
+    }
+
+    @Test
+    public void firstRevealIsAlwaysSafe() {
+        for (long seed = 0; seed < 200; seed++) {
+            EndlessMinesweeperGame game = new EndlessMinesweeperGame(seed, 0.5);
+            int x = (int) (seed * 37 % 101) - 50;
+            int y = (int) (seed * 53 % 97) - 48;
+            assertTrue("seed " + seed, game.revealCell(x, y));
+            assertFalse(game.isGameOver());
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    assertFalse("seed " + seed, game.isBomb(x + dx, y + dy));
+                }
+            }
+            assertEquals(0, game.getNeighborBombs(x, y));
+        }
+    }
+
+    @Test
+    public void tapOnFlaggedCellKeepsTheSafeFirstClick() {
+        EndlessMinesweeperGame game = new EndlessMinesweeperGame(7, 0.5);
+        assertTrue(game.toggleFlag(0, 0));
+        assertTrue(game.revealCell(0, 0));
+        assertFalse(game.isRevealed(0, 0));
+
+        // Find a mine; revealing it is still the first click, so it must be safe
+        int x = 10;
+        while (!game.isBomb(x, 10)) x++;
+        assertTrue(game.revealCell(x, 10));
+        assertTrue(game.isRevealed(x, 10));
+        assertFalse(game.isBomb(x, 10));
+    }
+
+    @Test
+    public void flagsCannotChangeAfterGameOver() {
+        EndlessMinesweeperGame game = new EndlessMinesweeperGame(7, 0.5);
+        assertTrue(game.revealCell(0, 0));
+        assertTrue(game.toggleFlag(20, 20));
+
+        int x = 10;
+        while (!game.isBomb(x, 10)) x++;
+        assertFalse(game.revealCell(x, 10));
+        assertTrue(game.isGameOver());
+
+        assertFalse(game.toggleFlag(30, 30));
+        assertFalse(game.isFlagged(30, 30));
+        assertTrue(game.toggleFlag(20, 20));
+        assertTrue(game.isFlagged(20, 20));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * GameServerTest
+ * --------------
+ * Requests of the HTTP endpoint, through {@link GameServer#handle}: malformed
+ * or unplayable /new parameters are rejected (a 400), and every board that
+ * /new accepts can be played without a move ever failing.
+ */
+public class GameServerTest {
+
+    private static void assertRejected(GameServer server, String target) {
+        try {
+            server.handle("GET " + target + " HTTP/1.1");
+            fail("Expected a 400 for " + target);
+        } catch (IllegalArgumentException expected) {
+            // Answered with 400
+        }
+    }
+
+    @Test
+    public void invalidBoardsAreRejected() {
+        GameServer server = new GameServer();
+        assertRejected(server, "/new?rows=0&cols=5&bombs=1");
+        assertRejected(server, "/new?rows=5&cols=-1&bombs=1");
+        assertRejected(server, "/new?rows=100000&cols=100000&bombs=1");
+        assertRejected(server, "/new?rows=3&cols=3&bombs=9");
+        assertRejected(server, "/new?rows=3&cols=3&bombs=-1");
+        assertRejected(server, "/new?rows=3&cols=3&bombs=1&topology=CUBE");
+        assertRejected(server, "/new?rows=3&cols=3");
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    public void denseBoardsArePlayable() {
+        GameServer server = new GameServer();
+        for (int bombs = 1; bombs < 9; bombs++) {
+            for (int seed = 0; seed < 20; seed++) {
+                String id = server.handle("GET /new?rows=3&cols=3&bombs=" + bombs + "&seed=" + seed + " HTTP/1.1");
+                String first = server.handle("GET /move?id=" + id + "&m=reveal&r=1&c=1 HTTP/1.1");
+                assertNotEquals(bombs + " bombs, seed " + seed, "bomb", first);
+                if (bombs == 8) assertEquals("won", first); // The clicked cell was the only safe one
+
+                // Reveal everything: the game must end, either on a bomb or won
+                String last = first;
+                for (int cell = 0; cell < 9 && !last.equals("bomb") && !last.equals("won"); cell++) {
+                    last = server.handle("GET /move?id=" + id + "&m=reveal&r=" + cell / 3
+                            + "&c=" + cell % 3 + " HTTP/1.1");
+                    assertNotEquals(bombs + " bombs, seed " + seed, "invalid", last);
+                }
+                assertEquals(bombs + " bombs, seed " + seed, "over",
+                        server.handle("GET /move?id=" + id + "&m=reveal&r=1&c=1 HTTP/1.1"));
+                assertEquals("ok", server.handle("GET /close?id=" + id + " HTTP/1.1"));
+            }
+        }
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    public void unknownSessionsAreInvalidMoves() {
+        GameServer server = new GameServer();
+        assertEquals("invalid", server.handle("GET /move?id=42&m=reveal&r=0&c=0 HTTP/1.1"));
+        assertEquals(0, server.getTotalMoves());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.minesweeper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GameSessionStoreTest
+ * --------------------
+ * Spilling idle sessions to disk and restoring them must keep every game
+ * exactly as it was, and a removed session must stay removed even when a
+ * move tries to restore it at the same time.
+ */
+public class GameSessionStoreTest {
+
+    private static final int SESSIONS = 40;
+    private static final long BUDGET = 10_000; // A handful of 16x16 sessions
+
+    private File spillDir;
+
+    @Before
+    public void setUp() throws IOException {
+        spillDir = Files.createTempDirectory("sessions").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        deleteTree(spillDir);
+    }
+
+    private static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteTree(child);
+        }
+        file.delete();
+    }
+
+    /** Adds SESSIONS played sessions (ids 1..SESSIONS) and waits for the spill; returns their bytes. */
+    private static byte[][] fill(GameSessionStore store) throws Exception {
+        byte[][] saved = new byte[SESSIONS + 1][];
+        for (long id = 1; id <= SESSIONS; id++) {
+            store.add(new GameSession(id, new MinesweeperGame(16, 16, 40, id)));
+            store.apply(id, GameSession.REVEAL, 8, 8);
+            store.apply(id, GameSession.FLAG, 0, 0);
+            saved[(int) id] = serialize(store.get(id));
+        }
+        store.awaitSpills();
+        return saved;
+    }
+
+    /** The session's complete state, including its game. */
+    private static byte[] serialize(GameSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            session.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void spilledSessionsAreRestoredUnchanged() throws Exception {
+        GameSessionStore store = new GameSessionStore(spillDir, BUDGET);
+        byte[][] saved = fill(store);
+
+        assertTrue("spilled", store.getSpilledCount() > 0);
+        assertTrue("resident " + store.getResidentBytes(), store.getResidentBytes() <= BUDGET);
+        assertEquals(SESSIONS, store.size());
+
+        for (long id = 1; id <= SESSIONS; id++) {
+            GameSession session = store.get(id);
+            assertNotNull("session " + id, session);
+            assertEquals(id, session.getId());
+            assertEquals(2, session.getMoves());
+            assertArrayEquals("session " + id, saved[(int) id], serialize(session));
+        }
+        store.awaitSpills();
+        assertEquals(SESSIONS, store.size());
+        store.shutdown();
+    }
+
+    @Test
+    public void movesOnSpilledSessionsAreKept() throws Exception {
+        GameSessionStore store = new GameSessionStore(spillDir, BUDGET);
+        fill(store);
+
+        for (long id = 1; id <= SESSIONS; id++) {
+            assertEquals(GameSession.RESULT_OK, store.apply(id, GameSession.FLAG, 15, 15));
+        }
+        store.awaitSpills();
+        for (long id = 1; id <= SESSIONS; id++) {
+            assertEquals("session " + id, 3, store.get(id).getMoves());
+        }
+        store.shutdown();
+    }
+
+    @Test
+    public void removeDeletesSpilledSessions() throws Exception {
+        GameSessionStore store = new GameSessionStore(spillDir, BUDGET);
+        fill(store);
+
+        for (long id = 1; id <= SESSIONS; id++) {
+            store.remove(id);
+            assertNull("session " + id, store.get(id));
+            assertEquals(GameSession.RESULT_INVALID, store.apply(id, GameSession.REVEAL, 0, 0));
+        }
+        store.awaitSpills();
+        assertEquals(0, store.size());
+        assertEquals(0, store.getSpilledCount());
+        assertEquals(0, store.getResidentBytes());
+        store.shutdown();
+    }
+
+    @Test
+    public void removeWinsAgainstConcurrentRestore() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            final GameSessionStore store = new GameSessionStore(spillDir, BUDGET);
+            fill(store);
+
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread mover = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (long id = 1; id <= SESSIONS; id++) {
+                        store.apply(id, GameSession.FLAG, 1, 1);
+                    }
+                }
+            });
+            Thread remover = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (long id = 1; id <= SESSIONS; id++) {
+                        store.remove(id);
+                    }
+                }
+            });
+            mover.start();
+            remover.start();
+            start.countDown();
+            mover.join();
+            remover.join();
+            store.awaitSpills();
+
+            for (long id = 1; id <= SESSIONS; id++) {
+                assertNull("round " + round + " session " + id, store.get(id));
+            }
+            assertEquals("round " + round, 0, store.size());
+            assertEquals("round " + round, 0, store.getSpilledCount());
+            assertFalse("round " + round, hasFiles(spillDir));
+            store.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean hasFiles(File dir) {
+        File[] children = dir.listFiles();
+        if (children == null) return false;
+        for (File child : children) {
+            if (child.isFile() || hasFiles(child)) return true;
+        }
+        return false;
+    }
+}
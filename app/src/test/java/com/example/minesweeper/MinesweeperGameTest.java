@@ -0,0 +1,297 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * MinesweeperGameTest
+ * -------------------
+ * The 3BV of small hand-checked boards, the safe first click (also on
+ * boards too dense for a safe area, and the flags a regeneration clears),
+ * and the binary game format (including games written before it had a
+ * version byte).
+ */
+public class MinesweeperGameTest {
+
+    /**
+     * Builds a started game from rows of '*' (bomb) and '.' (safe), with
+     * neighbor counts from the square rules, through the current format.
+     */
+    private static MinesweeperGame board(String... pattern) throws IOException {
+        int rows = pattern.length, cols = pattern[0].length();
+        byte[] cells = new byte[rows * cols];
+        int bombs = 0;
+        int[] pairs = new int[16];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (pattern[row].charAt(col) == '*') {
+                    cells[row * cols + col] = MinesweeperGame.BOMB;
+                    bombs++;
+                    continue;
+                }
+                int n = BoardTopology.SQUARE.neighbors(rows, cols, row, col, pairs);
+                int count = 0;
+                for (int k = 0; k < n; k++) {
+                    if (pattern[pairs[2 * k]].charAt(pairs[2 * k + 1]) == '*') count++;
+                }
+                cells[row * cols + col] = (byte) count;
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(2);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(bombs);
+        out.writeByte(BoardTopology.SQUARE.ordinal());
+        out.writeBoolean(false); // Past the first move: no regeneration
+        out.writeBoolean(false);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(0);
+        out.write(cells);
+        return read(bytes.toByteArray());
+    }
+
+    private static MinesweeperGame read(byte[] bytes) throws IOException {
+        return MinesweeperGame.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static byte[] write(MinesweeperGame game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            game.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ------------------ 3BV ------------------
+
+    @Test
+    public void isolatedNumberTakesItsOwnClick() throws IOException {
+        // The 2 touches no empty cell; the 1 is opened with the 0 beside it
+        assertEquals(2, board("*.*..").getBoard3BV());
+        // A single number between two bombs
+        assertEquals(1, board("*.*").getBoard3BV());
+    }
+
+    @Test
+    public void openingsJoinedDiagonallyAreOne() throws IOException {
+        // Two 2x2 empty areas touching only at (1,1)-(2,2); diagonals are
+        // neighbors on a square board, so one click opens both
+        MinesweeperGame game = board(
+                "...*",
+                "....",
+                "....",
+                "*...");
+        assertEquals(0, game.getNeighborBombs(1, 1));
+        assertEquals(0, game.getNeighborBombs(2, 2));
+        assertEquals(1, game.getNeighborBombs(1, 2));
+        assertEquals(1, game.getNeighborBombs(2, 1));
+        assertEquals(1, game.getBoard3BV());
+
+        game.revealCell(0, 0);
+        assertTrue(game.isRevealed(3, 3));
+        assertTrue(game.checkWin());
+    }
+
+    @Test
+    public void boardWithoutEmptyCellsCountsEveryNumber() throws IOException {
+        MinesweeperGame game = board(
+                "*.*",
+                ".*.",
+                "*.*");
+        assertEquals(4, game.getBoard3BV());
+
+        assertEquals(2, board(
+                "*.*.",
+                "****").getBoard3BV());
+    }
+
+    @Test
+    public void openingsAndIsolatedNumbersAdd() throws IOException {
+        // Left: an opening with its border; right: two isolated numbers
+        assertEquals(3, board(
+                "...*.*.*",
+                "...*****",
+                "...*****").getBoard3BV());
+    }
+
+    // ------------------ FIRST CLICK ------------------
+
+    /** Asserts the bomb total and that every safe cell shows its true neighbor count. */
+    private static void assertConsistent(String name, MinesweeperGame game, int bombs) {
+        int rows = game.getRows(), cols = game.getCols();
+        int[] pairs = new int[16];
+        int placed = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (game.isBomb(row, col)) {
+                    placed++;
+                    continue;
+                }
+                int n = BoardTopology.SQUARE.neighbors(rows, cols, row, col, pairs);
+                int count = 0;
+                for (int k = 0; k < n; k++) {
+                    if (game.isBomb(pairs[2 * k], pairs[2 * k + 1])) count++;
+                }
+                assertEquals(name + " count at " + row + "," + col, count, game.getNeighborBombs(row, col));
+            }
+        }
+        assertEquals(name + " bombs", bombs, placed);
+    }
+
+    @Test
+    public void denseBoardKeepsItsBombsOnTheFirstClick() {
+        // More bombs than fit outside a 3x3 area, fewer than the cells
+        int[][] boards = {{3, 3, 5}, {3, 3, 8}, {4, 4, 10}, {4, 4, 15}, {5, 5, 17}};
+        for (int[] b : boards) {
+            int rows = b[0], cols = b[1], bombs = b[2];
+            for (long seed = 0; seed < 30; seed++) {
+                for (int cell = 0; cell < rows * cols; cell++) {
+                    int row = cell / cols, col = cell % cols;
+                    String name = rows + "x" + cols + "/" + bombs + " seed " + seed + " at " + row + "," + col;
+                    MinesweeperGame game = new MinesweeperGame(rows, cols, bombs, seed);
+
+                    assertTrue(name, game.revealCell(row, col));
+                    assertTrue(name, game.isRevealed(row, col));
+                    assertFalse(name, game.isBomb(row, col));
+                    assertFalse(name, game.isGameOver());
+                    assertConsistent(name, game, bombs);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void denseBoardKeepsFlagsAndStillLoses() {
+        MinesweeperGame game = new MinesweeperGame(3, 3, 8, 4);
+        game.setFlagged(0, 0, true);
+        int row = 1, col = 1;
+        assertTrue(game.revealCell(row, col));
+        assertTrue(game.isFlagged(0, 0));
+        assertEquals(8, game.getNeighborBombs(row, col));
+
+        // Every other cell is a bomb now: the game can still be lost
+        assertFalse(game.revealCell(2, 2));
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    public void safeAreaIsKeptWhenItJustFits() {
+        // 25 - 9 = 16: the whole 3x3 area around the center must stay free
+        for (long seed = 0; seed < 50; seed++) {
+            MinesweeperGame game = new MinesweeperGame(5, 5, 16, seed);
+            assertTrue(game.revealCell(2, 2));
+            assertEquals(0, game.getNeighborBombs(2, 2));
+            assertConsistent("seed " + seed, game, 16);
+        }
+    }
+
+    @Test
+    public void regenerationReportsTheClearedFlags() {
+        // Find a 16x16 board whose first click at the center is unsafe
+        MinesweeperGame game = null;
+        for (long seed = 0; game == null; seed++) {
+            MinesweeperGame candidate = new MinesweeperGame(16, 16, 40, seed);
+            if (candidate.isBomb(8, 8) || candidate.getNeighborBombs(8, 8) > 0) game = candidate;
+        }
+        game.setFlagged(0, 0, true);
+        game.setFlagged(15, 3, true);
+
+        final StringBuilder events = new StringBuilder();
+        game.addListener(new GameListener() {
+            @Override
+            public void onBoardRegenerated() {
+                events.append("regenerated ");
+            }
+
+            @Override
+            public void onFlagChanged(int row, int col, boolean flagged) {
+                events.append(flagged ? "flag " : "unflag ").append(row).append(',').append(col).append(' ');
+            }
+        });
+
+        assertTrue(game.revealCell(8, 8));
+        assertEquals("regenerated unflag 0,0 unflag 15,3 ", events.toString());
+        assertFalse(game.isFlagged(0, 0));
+        assertFalse(game.isFlagged(15, 3));
+
+        // Later moves report no regeneration
+        events.setLength(0);
+        game.setFlagged(0, 0, true);
+        assertEquals("flag 0,0 ", events.toString());
+    }
+
+    // ------------------ FORMAT ------------------
+
+    @Test
+    public void roundTripKeepsTheGame() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(30, 40, 200, 5, BoardTopology.TORUS);
+        game.revealCell(10, 10);
+        game.setFlagged(0, 0, true);
+
+        byte[] bytes = write(game);
+        MinesweeperGame copy = read(bytes);
+
+        assertEquals(game.getRows(), copy.getRows());
+        assertEquals(game.getCols(), copy.getCols());
+        assertEquals(BoardTopology.TORUS, copy.getTopology());
+        assertEquals(game.isFirstMove(), copy.isFirstMove());
+        assertEquals(game.getEffectiveClicks(), copy.getEffectiveClicks());
+        assertEquals(game.getPositionHash(), copy.getPositionHash());
+        assertEquals(game.getBoard3BV(), copy.getBoard3BV());
+        assertArrayEquals(bytes, write(copy));
+    }
+
+    @Test
+    public void unversionedGamesAreConverted() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(20, 300, 900, 8);
+        game.revealCell(5, 5);
+        game.setFlagged(19, 299, true);
+        byte[] current = write(game);
+
+        // The format before the version byte: no version, no click count
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int header = 4 + 4 + 4 + 1 + 1 + 1 + 4; // rows .. revealed cells
+        bytes.write(current, 1, header);
+        bytes.write(current, 1 + header + 4, current.length - (1 + header + 4));
+        MinesweeperGame legacy = read(bytes.toByteArray());
+
+        assertEquals(20, legacy.getRows());
+        assertEquals(300, legacy.getCols());
+        assertEquals(0, legacy.getEffectiveClicks());
+        assertEquals(game.getPositionHash(), legacy.getPositionHash());
+        assertEquals(game.isFirstMove(), legacy.isFirstMove());
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 300; col++) {
+                assertEquals(game.isRevealed(row, col), legacy.isRevealed(row, col));
+                assertEquals(game.isFlagged(row, col), legacy.isFlagged(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void unknownVersionIsRejected() throws IOException {
+        byte[] bytes = write(new MinesweeperGame(4, 4, 2, 1));
+        bytes[0] = 99;
+        try {
+            read(bytes);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.minesweeper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * PositionCacheTest
+ * -----------------
+ * The transposition table keeps at most {@code capacity} results, evicts
+ * the least recently used (reads count as use), and counts its hit rate.
+ */
+public class PositionCacheTest {
+
+    @Test
+    public void evictsTheOldestAtCapacity() {
+        PositionCache<String> cache = new PositionCache<>(3);
+        for (long key = 1; key <= 5; key++) {
+            cache.put(key, "result " + key);
+        }
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.getCapacity());
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("result 3", cache.get(3));
+        assertEquals("result 5", cache.get(5));
+    }
+
+    @Test
+    public void readsKeepEntries() {
+        PositionCache<String> cache = new PositionCache<>(3);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        assertEquals("a", cache.get(1)); // 2 is now the least recently used
+
+        cache.put(4, "d");
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals("d", cache.get(4));
+
+        cache.put(3, "c2"); // Replacing counts as use too
+        cache.put(5, "e");
+        assertNull(cache.get(1));
+        assertEquals("c2", cache.get(3));
+    }
+
+    @Test
+    public void hitRateCountsEveryLookup() {
+        PositionCache<String> cache = new PositionCache<>(2);
+        assertEquals(0.0, cache.getHitRate(), 0);
+
+        cache.put(1, "a");
+        cache.get(1); // Hit
+        cache.get(2); // Miss
+        cache.get(1); // Hit
+        cache.get(3); // Miss
+        assertEquals(0.5, cache.getHitRate(), 0);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.get(1); // Miss: the counts survive a clear
+        assertEquals(0.4, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void keysFollowThePosition() {
+        MinesweeperGame game = new MinesweeperGame(9, 9, 10, 7);
+        game.revealCell(4, 4);
+        MinesweeperGame replay = new MinesweeperGame(9, 9, 10, 7);
+        replay.revealCell(4, 4);
+
+        long hash = game.getPositionHash();
+        assertEquals(PositionCache.key(hash, 0), PositionCache.key(replay.getPositionHash(), 0));
+        assertNotEquals(PositionCache.key(hash, 0), PositionCache.key(hash, 1));
+
+        // A flag changes the position, so its results are kept apart
+        int cell = 0;
+        while (game.isRevealed(cell / 9, cell % 9)) cell++;
+        game.setFlagged(cell / 9, cell % 9, true);
+        assertNotEquals(PositionCache.key(hash, 0), PositionCache.key(game.getPositionHash(), 0));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.minesweeper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * ScoreboardLoadReport
+ * --------------------
+ * Collects the measurements of {@link ScoreboardLoadTest} and writes them
+ * in two machine-readable forms:
+ *  - scoreboard-load.json: everything, one object per scale
+ *  - scoreboard-load.csv:  flat "rows,metric,value" lines, easy to diff or
+ *    plot against a previous run
+ */
+class ScoreboardLoadReport {
+
+    private final JSONObject root = new JSONObject();
+    private final JSONArray scales = new JSONArray();
+    private final StringBuilder csv = new StringBuilder("rows,metric,value\n");
+
+    ScoreboardLoadReport() throws JSONException {
+        root.put("generatedAt", System.currentTimeMillis());
+        root.put("jvm", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        root.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        root.put("scales", scales);
+    }
+
+    /** Starts the section of one scale; metrics are added to the returned object. */
+    Scale scale(long rows) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("rows", rows);
+        scales.put(json);
+        return new Scale(rows, json);
+    }
+
+    /** Writes both files into {@code dir} (created if needed). */
+    void write(File dir) throws IOException, JSONException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        writeFile(new File(dir, "scoreboard-load.json"), root.toString(2));
+        writeFile(new File(dir, "scoreboard-load.csv"), csv.toString());
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    /** Measurements of one scale. Names are dotted paths, e.g. "query.byDifficulty.p99Nanos". */
+    class Scale {
+        private final long rows;
+        private final JSONObject json;
+
+        Scale(long rows, JSONObject json) {
+            this.rows = rows;
+            this.json = json;
+        }
+
+        /** Adds a numeric metric to both the JSON (nested by the dotted name) and the CSV. */
+        void metric(String name, double value) throws JSONException {
+            section(name).put(leaf(name), value);
+            csv.append(rows).append(',').append(name).append(',')
+                    .append(String.format(Locale.US, "%.3f", value)).append('\n');
+        }
+
+        /** Adds a non-numeric detail (JSON only), e.g. a query plan. */
+        void detail(String name, Object value) throws JSONException {
+            section(name).put(leaf(name), value);
+        }
+
+        /** Adds the percentiles of a histogram as "<name>.p50", "<name>.p99", ... */
+        void histogram(String name, LogHistogram histogram) throws JSONException {
+            metric(name + ".count", histogram.getCount());
+            metric(name + ".meanNanos", histogram.getMean());
+            metric(name + ".p50Nanos", histogram.getPercentile(50));
+            metric(name + ".p90Nanos", histogram.getPercentile(90));
+            metric(name + ".p99Nanos", histogram.getPercentile(99));
+            metric(name + ".maxNanos", histogram.getMax());
+        }
+
+        private JSONObject section(String name) throws JSONException {
+            JSONObject current = json;
+            String[] parts = name.split("\\.");
+            for (int i = 0; i < parts.length - 1; i++) {
+                JSONObject next = current.optJSONObject(parts[i]);
+                if (next == null) {
+                    next = new JSONObject();
+                    current.put(parts[i], next);
+                }
+                current = next;
+            }
+            return current;
+        }
+
+        private String leaf(String name) {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+}
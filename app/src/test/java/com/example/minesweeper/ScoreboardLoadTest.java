@@ -0,0 +1,261 @@
+package com.example.minesweeper;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * ScoreboardLoadTest
+ * ------------------
+ * Load test of the score database with years of synthetic history, run on
+ * the JVM through Robolectric against the real Room schema and DAO.
+ *
+ * For every requested scale (number of rows) it measures:
+ *  - insert throughput: bulk import ({@link ScoreTransfer}) and single
+ *    results ({@link ScoreDao#recordResult}), plus the database file size
+ *  - latency and retained heap of the scoreboard queries, and of a full
+ *    scoreboard load as {@link ScoreboardActivity} does it
+ *  - index effectiveness: the query plan of every query, and how much
+ *    faster it is than the same query forced to scan the table (NOT INDEXED)
+ *
+ * Results go to build/reports/scoreboard-load/ as JSON and CSV (see
+ * {@link ScoreboardLoadReport}). The test is skipped unless scales are given:
+ *
+ *   ./gradlew :app:testDebugUnitTest --tests '*ScoreboardLoadTest' \
+ *       -Pscoreboard.loadtest.rows=10000,100000,1000000,10000000
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class ScoreboardLoadTest {
+
+    private static final String ROWS_PROPERTY = "scoreboard.loadtest.rows";
+    private static final String REPORT_DIR_PROPERTY = "scoreboard.loadtest.reportDir";
+
+    /** Single-result inserts measured per scale (each is its own transaction) */
+    private static final int RECORD_RESULT_SAMPLES = 1_000;
+
+    /** Rows × iterations per query is kept around this, so large scales stay bounded */
+    private static final long QUERY_ROW_BUDGET = 2_000_000;
+
+    private static final long WEEK_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    /** One measured query: the DAO call, and the same query as SQL for plans and scans. */
+    private abstract static class LoadQuery {
+        final String name;
+        final String sql;
+        final Object[] args;
+
+        LoadQuery(String name, String sql, Object... args) {
+            this.name = name;
+            this.sql = sql;
+            this.args = args;
+        }
+
+        /** Runs the DAO method; the result is kept alive for the heap measurement. */
+        abstract List<?> run(ScoreDao dao);
+    }
+
+    @Test
+    public void scoreboardUnderLoad() throws Exception {
+        String scales = System.getProperty(ROWS_PROPERTY, "");
+        assumeFalse("Set -P" + ROWS_PROPERTY + " to run the load test", scales.trim().isEmpty());
+
+        ScoreboardLoadReport report = new ScoreboardLoadReport();
+        for (String scale : scales.split(",")) {
+            runScale(Long.parseLong(scale.trim().replace("_", "")), report);
+        }
+
+        File dir = new File(System.getProperty(REPORT_DIR_PROPERTY, "build/reports/scoreboard-load"));
+        report.write(dir);
+        System.out.println("Scoreboard load report written to " + dir.getAbsolutePath());
+    }
+
+    private void runScale(long rows, ScoreboardLoadReport report) throws Exception {
+        Context context = RuntimeEnvironment.getApplication();
+        String name = "loadtest-" + rows + ".db";
+        context.deleteDatabase(name);
+        ScoreDatabase database = Room.databaseBuilder(context, ScoreDatabase.class, name)
+                .allowMainThreadQueries()
+                .build();
+        ScoreboardLoadReport.Scale scale = report.scale(rows);
+
+        try {
+            ScoreDao dao = database.scoreDao();
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+
+            // ---- Inserts ----
+            long start = System.nanoTime();
+            int imported = new ScoreTransfer(database).importScores(new SyntheticScoreStream(rows, 5, rows));
+            long importNanos = System.nanoTime() - start;
+            assertEquals(rows, imported);
+            scale.metric("insert.bulk.seconds", importNanos / 1e9);
+            scale.metric("insert.bulk.rowsPerSecond", rows * 1e9 / importNanos);
+
+            LogHistogram recordResult = new LogHistogram("recordResult", "ns");
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < RECORD_RESULT_SAMPLES; i++) {
+                Score score = new Score(SyntheticScoreStream.DIFFICULTIES[i % 3], 20_000 + i, now + i, i % 4 != 0);
+                long t = System.nanoTime();
+                dao.recordResult(score);
+                recordResult.recordSince(t);
+            }
+            scale.histogram("insert.recordResult", recordResult);
+            scale.metric("insert.recordResult.rowsPerSecond", 1e9 / recordResult.getMean());
+
+            File file = context.getDatabasePath(name);
+            scale.metric("database.fileBytes", file.length() + new File(file.getPath() + "-wal").length());
+
+            // ---- Queries ----
+            int iterations = (int) Math.max(3, Math.min(50, QUERY_ROW_BUDGET / rows));
+            for (LoadQuery query : queries(now - WEEK_MILLIS)) {
+                measureQuery(query, dao, db, iterations, scale);
+            }
+
+            // ---- Full scoreboard load, as ScoreboardActivity.loadScores() does it ----
+            LogHistogram load = new LogHistogram("scoreboardLoad", "ns");
+            for (int i = 0; i < iterations; i++) {
+                long t = System.nanoTime();
+                List<Score> scores = dao.getScoresByDifficulty("Easy");
+                ScoreAdapter adapter = new ScoreAdapter(context, scores);
+                dao.getStats("Easy");
+                load.recordSince(t);
+                assertTrue(adapter.getItemCount() > 0);
+            }
+            scale.histogram("scoreboardLoad", load);
+        } finally {
+            database.close();
+            context.deleteDatabase(name);
+        }
+    }
+
+    private static LoadQuery[] queries(long weekStart) {
+        return new LoadQuery[]{
+                new LoadQuery("byDifficulty",
+                        "SELECT * FROM scores WHERE difficulty = ? AND won = 1 ORDER BY timeMillis ASC", "Easy") {
+                    @Override
+                    List<?> run(ScoreDao dao) {
+                        return dao.getScoresByDifficulty("Easy");
+                    }
+                },
+                new LoadQuery("byDifficultyThisWeek",
+                        "SELECT * FROM scores WHERE difficulty = ? AND timestamp >= ? AND won = 1 ORDER BY timeMillis ASC",
+                        "Easy", weekStart) {
+                    @Override
+                    List<?> run(ScoreDao dao) {
+                        return dao.getScoresByDifficultySince("Easy", weekStart);
+                    }
+                },
+                new LoadQuery("by3BVPerSecond",
+                        "SELECT * FROM scores WHERE difficulty = ? AND won = 1 AND bbbvPerSecond > 0 "
+                                + "ORDER BY bbbvPerSecond DESC", "Hard") {
+                    @Override
+                    List<?> run(ScoreDao dao) {
+                        return dao.getScoresByDifficultyBy3BVPerSecond("Hard");
+                    }
+                },
+                new LoadQuery("stats",
+                        "SELECT * FROM difficulty_stats WHERE difficulty = ?", "Medium") {
+                    @Override
+                    List<?> run(ScoreDao dao) {
+                        return Collections.singletonList(dao.getStats("Medium"));
+                    }
+                }
+        };
+    }
+
+    private void measureQuery(LoadQuery query, ScoreDao dao, SupportSQLiteDatabase db,
+                              int iterations, ScoreboardLoadReport.Scale scale) throws Exception {
+        String prefix = "query." + query.name;
+
+        // Latency through Room (includes building the Score objects)
+        query.run(dao); // Warm-up: statement cache and page cache
+        LogHistogram latency = new LogHistogram(query.name, "ns");
+        for (int i = 0; i < iterations; i++) {
+            long t = System.nanoTime();
+            query.run(dao);
+            latency.recordSince(t);
+        }
+        scale.histogram(prefix, latency);
+
+        // Heap retained by one result list
+        long before = usedHeap();
+        List<?> result = query.run(dao);
+        long after = usedHeap();
+        scale.metric(prefix + ".resultRows", result.size());
+        scale.metric(prefix + ".resultHeapBytes", Math.max(0, after - before));
+
+        // Query plan, and the gain over a forced table scan
+        String plan = queryPlan(db, query);
+        boolean fullScan = plan.matches("(?s).*SCAN (TABLE )?(scores|difficulty_stats)(?! USING).*");
+        scale.detail("index." + query.name + ".plan", plan);
+        scale.metric("index." + query.name + ".usesIndex", fullScan ? 0 : 1);
+        scale.metric("index." + query.name + ".tempSort", plan.contains("TEMP B-TREE") ? 1 : 0);
+        if (query.sql.contains("FROM scores")) {
+            long indexed = medianScanNanos(db, query.sql, query.args);
+            long unindexed = medianScanNanos(db, query.sql.replace("FROM scores", "FROM scores NOT INDEXED"), query.args);
+            scale.metric("index." + query.name + ".indexedScanNanos", indexed);
+            scale.metric("index." + query.name + ".tableScanNanos", unindexed);
+            scale.metric("index." + query.name + ".speedup", (double) unindexed / Math.max(1, indexed));
+        }
+        assertTrue(query.name + " scans the whole table: " + plan, !fullScan);
+    }
+
+    private static String queryPlan(SupportSQLiteDatabase db, LoadQuery query) {
+        StringBuilder plan = new StringBuilder();
+        Cursor cursor = db.query("EXPLAIN QUERY PLAN " + query.sql, query.args);
+        try {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                if (plan.length() > 0) plan.append('\n');
+                plan.append(cursor.getString(detail));
+            }
+        } finally {
+            cursor.close();
+        }
+        return plan.toString();
+    }
+
+    /** Median time to step through every row of a raw query (no objects built), over 3 runs. */
+    private static long medianScanNanos(SupportSQLiteDatabase db, String sql, Object[] args) {
+        long[] runs = new long[3];
+        for (int i = 0; i < runs.length; i++) {
+            long t = System.nanoTime();
+            Cursor cursor = db.query(sql, args);
+            try {
+                while (cursor.moveToNext()) {
+                    cursor.getLong(0);
+                }
+            } finally {
+                cursor.close();
+            }
+            runs[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(runs);
+        return runs[1];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.minesweeper;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * SyntheticScoreStream
+ * --------------------
+ * Generates a deterministic history of game results as a CSV stream in the
+ * {@link ScoreTransfer} layout, one line at a time, so millions of rows can
+ * be imported without holding them in memory.
+ *
+ * The history looks like years of real play: half the games on Easy, 30% on
+ * Medium, 20% on Hard, about 70% won, times spread per difficulty, and
+ * timestamps increasing from {@code years} ago until now.
+ */
+class SyntheticScoreStream extends InputStream {
+
+    static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+    private static final long[] MEDIAN_MILLIS = {25_000, 110_000, 320_000};
+    private static final int[] MEDIAN_3BV = {30, 120, 250};
+
+    private final long rows;
+    private final long firstTimestamp;
+    private final long step;
+    private final Random random;
+
+    private long row = -1; // -1: header not written yet
+    private byte[] line = new byte[0];
+    private int position;
+
+    SyntheticScoreStream(long rows, int years, long seed) {
+        long span = years * 365L * 24 * 60 * 60 * 1000;
+        this.rows = rows;
+        this.firstTimestamp = System.currentTimeMillis() - span;
+        this.step = Math.max(1, span / Math.max(1, rows));
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public int read() {
+        if (position == line.length && !nextLine()) return -1;
+        return line[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) return 0;
+        int copied = 0;
+        while (copied < length) {
+            if (position == line.length && !nextLine()) break;
+            int n = Math.min(length - copied, line.length - position);
+            System.arraycopy(line, position, buffer, offset + copied, n);
+            position += n;
+            copied += n;
+        }
+        return copied == 0 ? -1 : copied;
+    }
+
+    private boolean nextLine() {
+        if (row >= rows) return false;
+        String text;
+        if (row < 0) {
+            text = "difficulty,timeMillis,timestamp,won,bbbv,bbbvPerSecond,efficiency\n";
+        } else {
+            text = generateRow();
+        }
+        row++;
+        line = text.getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        return true;
+    }
+
+    private String generateRow() {
+        int roll = random.nextInt(10);
+        int difficulty = roll < 5 ? 0 : roll < 8 ? 1 : 2;
+        // Log-normal-ish spread around the median (×0.4 .. ×2.5)
+        long timeMillis = (long) (MEDIAN_MILLIS[difficulty] * Math.exp(random.nextGaussian() * 0.45));
+        long timestamp = firstTimestamp + row * step + (long) (random.nextDouble() * step);
+        boolean won = random.nextInt(10) < 7;
+
+        int bbbv = 0;
+        double bbbvPerSecond = 0, efficiency = 0;
+        if (won) {
+            bbbv = Math.max(1, (int) (MEDIAN_3BV[difficulty] * (0.7 + 0.6 * random.nextDouble())));
+            bbbvPerSecond = bbbv * 1000.0 / Math.max(1, timeMillis);
+            efficiency = 0.5 + 0.6 * random.nextDouble();
+        }
+        return DIFFICULTIES[difficulty] + "," + timeMillis + "," + timestamp + "," + (won ? 1 : 0)
+                + "," + bbbv + "," + bbbvPerSecond + "," + efficiency + "\n";
+    }
+}